@@ -2,12 +2,12 @@ package com.coupon.backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
 import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// Users authenticate with JWTs only; no in-memory default user
+@SpringBootApplication(exclude = UserDetailsServiceAutoConfiguration.class)
 @EnableAsync
-@EnableScheduling
 public class BackendApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,44 @@
+package com.coupon.backend.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers the full-text search functions used by CouponSpecification.
+ * The tsvector expression must stay identical to the GIN index created in SchemaInitializer,
+ * otherwise Postgres will not use the index.
+ */
+public class PostgresSearchFunctionContributor implements FunctionContributor {
+
+    public static final String MATCH_FUNCTION = "coupon_fts_match";
+    public static final String RANK_FUNCTION = "coupon_fts_rank";
+
+    // ?1 = title, ?2 = platform, ?3 = description
+    static final String SEARCH_VECTOR_SQL =
+            "to_tsvector('simple', coalesce(?1, '') || ' ' || coalesce(?2, '') || ' ' || coalesce(?3, ''))";
+
+    // ?4 = tsquery text built by CouponSpecification
+    private static final String QUERY_SQL = "to_tsquery('simple', ?4)";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        if (!(functionContributions.getDialect() instanceof PostgreSQLDialect)) {
+            return;
+        }
+
+        BasicTypeRegistry basicTypeRegistry = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+
+        functionContributions.getFunctionRegistry().registerPattern(
+                MATCH_FUNCTION,
+                "(" + SEARCH_VECTOR_SQL + " @@ " + QUERY_SQL + ")",
+                basicTypeRegistry.resolve(StandardBasicTypes.BOOLEAN));
+
+        functionContributions.getFunctionRegistry().registerPattern(
+                RANK_FUNCTION,
+                "ts_rank(" + SEARCH_VECTOR_SQL + ", " + QUERY_SQL + ")",
+                basicTypeRegistry.resolve(StandardBasicTypes.FLOAT));
+    }
+}
@@ -0,0 +1,13 @@
+package com.coupon.backend.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Runs @Scheduled methods and ClusterJobScheduler's jobs. Tests turn it off: every cached test
+// context would otherwise keep polling and sweeping the shared database under other test classes.
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "app.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -0,0 +1,103 @@
+package com.coupon.backend.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies PostgreSQL-specific DDL that Hibernate's ddl-auto=update cannot express
+ * (expression/GIN indexes etc). Runs after Hibernate has created the tables.
+ * Every statement must be idempotent because this runs on every startup.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SchemaInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaInitializer.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void initialize() {
+        String searchVector = PostgresSearchFunctionContributor.SEARCH_VECTOR_SQL
+                .replace("?1", "title")
+                .replace("?2", "platform")
+                .replace("?3", "description");
+
+        execute("coupon full-text search index",
+                "CREATE INDEX IF NOT EXISTS idx_coupon_search ON coupon USING GIN (" + searchVector + ")");
+
+        execute("coupon keyset browse index",
+                "CREATE INDEX IF NOT EXISTS idx_coupon_created_at_id ON coupon (created_at DESC, id DESC)");
+
+        execute("active coupon keyset browse index",
+                "CREATE INDEX IF NOT EXISTS idx_coupon_active_created_at ON coupon (created_at DESC, id DESC) WHERE is_active");
+
+        execute("active coupons by expiry index",
+                "CREATE INDEX IF NOT EXISTS idx_coupon_active_valid_till ON coupon (valid_till) WHERE is_active");
+
+        execute("pending coupons by start index",
+                "CREATE INDEX IF NOT EXISTS idx_coupon_pending_valid_from ON coupon (valid_from) WHERE is_pending_activation");
+
+        execute("one redemption per user and coupon",
+                "CREATE UNIQUE INDEX IF NOT EXISTS uk_coupon_redemption_user_coupon ON coupon_redemption (user_id, coupon_id)");
+
+        execute("redemptions by coupon index",
+                "CREATE INDEX IF NOT EXISTS idx_coupon_redemption_coupon ON coupon_redemption (coupon_id)");
+
+        execute("case-insensitive coupon code index",
+                "CREATE INDEX IF NOT EXISTS idx_coupon_code_upper ON coupon (UPPER(code))");
+
+        execute("points ledger by user index",
+                "CREATE INDEX IF NOT EXISTS idx_points_ledger_user_created_at ON points_ledger (user_id, created_at DESC)");
+
+        execute("due email outbox index",
+                "CREATE INDEX IF NOT EXISTS idx_email_outbox_due ON email_outbox (next_attempt_at) WHERE status IN ('PENDING', 'SENDING')");
+
+        execute("job runs by job index",
+                "CREATE INDEX IF NOT EXISTS idx_job_run_job_started_at ON job_run (job_name, started_at DESC)");
+
+        execute("flash sale lease table",
+                "CREATE TABLE IF NOT EXISTS flash_sale_lease (" +
+                "coupon_id UUID NOT NULL, " +
+                "instance_id VARCHAR(255) NOT NULL, " +
+                "units INTEGER NOT NULL, " +
+                "expires_at TIMESTAMPTZ NOT NULL, " +
+                "PRIMARY KEY (coupon_id, instance_id))");
+
+        execute("stats rollup table",
+                "CREATE TABLE IF NOT EXISTS stats_rollup (" +
+                "granularity VARCHAR(8) NOT NULL, " +
+                "metric VARCHAR(32) NOT NULL, " +
+                "dimension VARCHAR(255) NOT NULL DEFAULT '', " +
+                "bucket_start TIMESTAMPTZ NOT NULL, " +
+                "value BIGINT NOT NULL DEFAULT 0, " +
+                "PRIMARY KEY (granularity, metric, dimension, bucket_start))");
+
+        execute("coupon status change feed table",
+                "CREATE TABLE IF NOT EXISTS coupon_status_change (" +
+                "seq BIGSERIAL PRIMARY KEY, " +
+                "coupon_id UUID NOT NULL, " +
+                "platform VARCHAR(255), " +
+                "category VARCHAR(255), " +
+                "discount_type VARCHAR(32), " +
+                "valid_till DATE, " +
+                "active BOOLEAN NOT NULL, " +
+                "changed_at TIMESTAMPTZ NOT NULL)");
+    }
+
+    private void execute(String description, String sql) {
+        try {
+            jdbcTemplate.execute(sql);
+            logger.debug("[SCHEMA] Applied: {}", description);
+        } catch (DataAccessException e) {
+            logger.warn("[SCHEMA] Could not apply {} - Error: {}", description, e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.coupon.backend.config;
 
 import com.coupon.backend.filter.JwtAuthenticationFilter;
+import com.coupon.backend.filter.RateLimitFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -21,6 +23,9 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
     @Autowired
     private CorsConfigurationSource corsConfigurationSource;
 
@@ -30,18 +35,23 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.configurationSource(corsConfigurationSource))
                 .authorizeHttpRequests(auth -> {
+                    // Async dispatches (SSE, streamed downloads) belong to a request that was already authorized
+                    auth.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll();
                     auth.requestMatchers(HttpMethod.OPTIONS, "/**").permitAll();
                     auth.requestMatchers("/api/auth/**", "/auth/**").permitAll();
                     auth.requestMatchers("/api/email/**", "/email/**").permitAll();
                     auth.requestMatchers(HttpMethod.GET, "/api/coupons/browse", "/coupons/browse").permitAll();
+                    auth.requestMatchers(HttpMethod.GET, "/api/coupons/facets", "/coupons/facets").permitAll();
                     auth.requestMatchers(HttpMethod.GET, "/api/health", "/health").permitAll();
                     auth.requestMatchers("/api/logs/**", "/logs/**").hasAuthority("ADMIN");
+                    auth.requestMatchers("/api/admin/**", "/admin/**").hasAuthority("ADMIN");
                     auth.anyRequest().authenticated();
                 })
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,294 @@
+package com.coupon.backend.controller;
+
+import com.coupon.backend.dto.AnalyticsResponseDto;
+import com.coupon.backend.dto.JobRunDto;
+import com.coupon.backend.scheduler.ClusterJobScheduler;
+import com.coupon.backend.service.AnalyticsService;
+import com.coupon.backend.service.CouponBrowseCache;
+import com.coupon.backend.service.EmailOutboxService;
+import com.coupon.backend.service.ExtractionCache;
+import com.coupon.backend.service.ExtractionJobService;
+import com.coupon.backend.service.FlashSaleService;
+import com.coupon.backend.service.JsonExtractorService;
+import com.coupon.backend.service.LogHistoryWriter;
+import com.coupon.backend.service.LoginAttemptThrottle;
+import com.coupon.backend.service.PasswordHashingService;
+import com.coupon.backend.service.RateLimiter;
+import com.coupon.backend.service.StatsRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminController.class);
+
+    @Autowired
+    private CouponBrowseCache couponBrowseCache;
+
+    @Autowired
+    private ExtractionCache extractionCache;
+
+    @Autowired
+    private JsonExtractorService jsonExtractorService;
+
+    @Autowired
+    private ExtractionJobService extractionJobService;
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private LogHistoryWriter logHistoryWriter;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private LoginAttemptThrottle loginAttemptThrottle;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private StatsRollupService statsRollupService;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private ClusterJobScheduler clusterJobScheduler;
+
+    /**
+     * Browse cache counters (hits, misses, evictions, ...) for sizing the cache
+     */
+    @GetMapping("/cache/browse")
+    public ResponseEntity<Map<String, Object>> getBrowseCacheStats() {
+        return ResponseEntity.ok(couponBrowseCache.getStats());
+    }
+
+    /**
+     * Drop every cached browse page
+     */
+    @DeleteMapping("/cache/browse")
+    public ResponseEntity<Void> clearBrowseCache() {
+        logger.info("[ADMIN] Clearing browse cache");
+        couponBrowseCache.clear();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Extraction cache counters (hit rate, upstream time saved, ...)
+     */
+    @GetMapping("/cache/extraction")
+    public ResponseEntity<Map<String, Object>> getExtractionCacheStats() {
+        return ResponseEntity.ok(extractionCache.getStats());
+    }
+
+    /**
+     * Drop every cached extraction, in memory and on disk
+     */
+    @DeleteMapping("/cache/extraction")
+    public ResponseEntity<Void> clearExtractionCache() {
+        logger.info("[ADMIN] Clearing extraction cache");
+        extractionCache.clear();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * How extractions were served: local rules, the model, or local rules after a model failure
+     */
+    @GetMapping("/extract/stats")
+    public ResponseEntity<Map<String, Object>> getExtractionStats() {
+        return ResponseEntity.ok(jsonExtractorService.getStats());
+    }
+
+    /**
+     * Background extraction jobs (pending, running, rejected, ...)
+     */
+    @GetMapping("/extract/jobs")
+    public ResponseEntity<Map<String, Object>> getExtractionJobStats() {
+        return ResponseEntity.ok(extractionJobService.getStats());
+    }
+
+    /**
+     * Activity log writer counters (queued, written, dropped, ...)
+     */
+    @GetMapping("/logs/writer")
+    public ResponseEntity<Map<String, Object>> getLogWriterStats() {
+        return ResponseEntity.ok(logHistoryWriter.getStats());
+    }
+
+    /**
+     * Password hashing pool (latency, queue, rejections) and login throttle counters
+     */
+    @GetMapping("/auth/metrics")
+    public ResponseEntity<Map<String, Object>> getAuthMetrics() {
+        return ResponseEntity.ok(Map.of(
+                "hashing", passwordHashingService.getStats(),
+                "throttle", loginAttemptThrottle.getStats()));
+    }
+
+    /**
+     * Rate limit policies with their allowed/rejected counters and tracked keys
+     */
+    @GetMapping("/rate-limits")
+    public ResponseEntity<Map<String, Object>> getRateLimitStats() {
+        return ResponseEntity.ok(rateLimiter.getStats());
+    }
+
+    /**
+     * Day totals from the stats rollup (today when no date is given)
+     */
+    @GetMapping("/stats/daily")
+    public ResponseEntity<Map<StatsRollupService.Metric, Long>> getDailyStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LocalDate day = date != null ? date : LocalDate.now(statsRollupService.getZone());
+        return ResponseEntity.ok(statsRollupService.getDayTotals(day));
+    }
+
+    /**
+     * Recompute the stats rollup for a date range from the source tables (backfill or repair)
+     */
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<?> rebuildStats(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        logger.info("[ADMIN] Rebuilding stats rollup for {} to {}", from, to);
+        try {
+            return ResponseEntity.ok(statsRollupService.rebuild(from, to));
+        } catch (RuntimeException e) {
+            logger.error("[ADMIN] Stats rebuild failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Hourly, daily or weekly series of each metric, optionally split by platform, category or points reason
+     */
+    @GetMapping("/analytics")
+    public ResponseEntity<?> getAnalytics(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String bucket,
+            @RequestParam(required = false) String groupBy,
+            @RequestParam(required = false) List<String> metrics) {
+        try {
+            AnalyticsResponseDto response = analyticsService.getSeries(from, to, bucket, groupBy, metrics);
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            logger.error("[ADMIN] Analytics query failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Email outbox counts by status and sender counters
+     */
+    @GetMapping("/email/outbox")
+    public ResponseEntity<Map<String, Object>> getEmailOutboxStats() {
+        return ResponseEntity.ok(emailOutboxService.getStats());
+    }
+
+    /**
+     * Send a dead email again with a fresh set of attempts
+     */
+    @PostMapping("/email/outbox/{id}/retry")
+    public ResponseEntity<?> retryEmail(@PathVariable UUID id) {
+        logger.info("[ADMIN] Retrying dead email {}", id);
+        try {
+            emailOutboxService.retry(id);
+            return ResponseEntity.accepted().build();
+        } catch (RuntimeException e) {
+            logger.error("[ADMIN] Retrying email failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Scheduled jobs with their policy, counters on this instance and last recorded run
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<List<Map<String, Object>>> getJobs() {
+        return ResponseEntity.ok(clusterJobScheduler.getStatus());
+    }
+
+    /**
+     * Most recent runs of a job across all instances
+     */
+    @GetMapping("/jobs/{name}/runs")
+    public ResponseEntity<?> getJobRuns(@PathVariable String name, @RequestParam(defaultValue = "20") int limit) {
+        try {
+            List<JobRunDto> runs = clusterJobScheduler.getRuns(name, limit);
+            return ResponseEntity.ok(runs);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Run a job now, outside its schedule
+     */
+    @PostMapping("/jobs/{name}/run")
+    public ResponseEntity<?> runJob(@PathVariable String name) {
+        logger.info("[ADMIN] Running job {} on demand", name);
+        try {
+            clusterJobScheduler.runNow(name);
+            return ResponseEntity.accepted().build();
+        } catch (RuntimeException e) {
+            logger.error("[ADMIN] Running job {} failed: {}", name, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Flash-sale stock leased by this instance, per coupon
+     */
+    @GetMapping("/flash-sales")
+    public ResponseEntity<List<Map<String, Object>>> getFlashSales() {
+        return ResponseEntity.ok(flashSaleService.getStatus());
+    }
+
+    /**
+     * Serve a coupon's redemptions from in-memory stock (for limited drops)
+     */
+    @PostMapping("/coupons/{id}/flash-sale")
+    public ResponseEntity<?> enableFlashSale(@PathVariable UUID id) {
+        logger.info("[ADMIN] Enabling flash sale for coupon {}", id);
+        try {
+            return ResponseEntity.ok(flashSaleService.enable(id));
+        } catch (RuntimeException e) {
+            logger.error("[ADMIN] Enabling flash sale failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Return a coupon to regular redemption
+     */
+    @DeleteMapping("/coupons/{id}/flash-sale")
+    public ResponseEntity<?> disableFlashSale(@PathVariable UUID id) {
+        logger.info("[ADMIN] Disabling flash sale for coupon {}", id);
+        try {
+            flashSaleService.disable(id);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            logger.error("[ADMIN] Disabling flash sale failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        }
+    }
+}
@@ -4,9 +4,10 @@ import com.coupon.backend.dto.SingInRequestDto;
 import com.coupon.backend.dto.UserDetailsRequestDto;
 import com.coupon.backend.dto.UserDetailsResponseDto;
 import com.coupon.backend.entity.UserDetail;
-import com.coupon.backend.repository.UserDetailRepository;
+import com.coupon.backend.exception.TooManyRequestsException;
+import com.coupon.backend.security.CurrentUser;
 import com.coupon.backend.service.AuthService;
-import com.coupon.backend.util.JwtUtil;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,21 +28,18 @@ public class AuthController {
     @Autowired
     private AuthService authService;
 
-    @Autowired
-    private JwtUtil jwtUtil;
-
-    @Autowired
-    private UserDetailRepository userDetailRepository;
-
     @PostMapping("/signup")
-    public ResponseEntity<?> register(@Valid @RequestBody UserDetailsRequestDto requestDto) {
+    public ResponseEntity<?> register(@Valid @RequestBody UserDetailsRequestDto requestDto,
+                                      HttpServletRequest httpRequest) {
         logger.debug("[AUTH] Signup request received for email: {}", requestDto.email());
         logger.debug("[AUTH] Signup - Full name: {}", requestDto.fullName());
         
         try {
-            UserDetailsResponseDto response = authService.register(requestDto);
+            UserDetailsResponseDto response = authService.register(requestDto, httpRequest.getRemoteAddr());
             
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (TooManyRequestsException e) {
+            throw e;
         } catch (RuntimeException e) {
             logger.error("[AUTH] Signup failed - {}: {}", requestDto.email(), e.getMessage());
             
@@ -52,13 +50,17 @@ public class AuthController {
     }
 
     @PostMapping("/signin")
-    public ResponseEntity<?> signIn(@Valid @RequestBody SingInRequestDto requestDto) {
+    public ResponseEntity<?> signIn(@Valid @RequestBody SingInRequestDto requestDto,
+                                    HttpServletRequest httpRequest) {
         logger.debug("[AUTH] Signin request: {}", requestDto.email());
         
         try {
-            UserDetailsResponseDto response = authService.signin(requestDto);
+            UserDetailsResponseDto response = authService.signin(requestDto, httpRequest.getRemoteAddr());
             
             return ResponseEntity.ok(response);
+        } catch (TooManyRequestsException e) {
+            // Mapped to 429 with Retry-After by GlobalExceptionHandler
+            throw e;
         } catch (RuntimeException e) {
             logger.warn("[AUTH] Signin failed - {}: {}", requestDto.email(), e.getMessage());
             
@@ -69,40 +71,20 @@ public class AuthController {
     }
 
     /**
-     * Get user profile from JWT token
+     * Get the signed-in user's profile
      */
     @GetMapping("/profile")
-    public ResponseEntity<?> getUserProfile(@RequestHeader("Authorization") String authHeader) {
-        logger.debug("[AUTH] Profile request received");
-        
-        try {
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                logger.warn("[AUTH] Profile rejected - Invalid header");
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("message", "Authorization header missing or invalid"));
-            }
+    public ResponseEntity<?> getUserProfile(@CurrentUser UserDetail user) {
+        logger.debug("[AUTH] Profile retrieved: {}", user.getEmail());
 
-            String token = authHeader.substring(7);
-            String email = jwtUtil.extractEmail(token);
+        Map<String, Object> profile = new HashMap<>();
+        profile.put("id", user.getId().toString());
+        profile.put("email", user.getEmail());
+        profile.put("fullName", user.getFullName());
+        profile.put("points", user.getPoints());
+        profile.put("role", user.getRole());
+        profile.put("createdAt", user.getCreatedAt());
 
-            UserDetail user = userDetailRepository.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
-            logger.debug("[AUTH] Profile retrieved: {}", email);
-
-            Map<String, Object> profile = new HashMap<>();
-            profile.put("id", user.getId().toString());
-            profile.put("email", user.getEmail());
-            profile.put("fullName", user.getFullName());
-            profile.put("points", user.getPoints());
-            profile.put("role", user.getRole());
-            profile.put("createdAt", user.getCreatedAt());
-
-            return ResponseEntity.ok(profile);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Map.of("message", "Invalid token or user not found"));
-        }
+        return ResponseEntity.ok(profile);
     }
 }
-
@@ -1,20 +1,25 @@
 package com.coupon.backend.controller;
 
+import com.coupon.backend.dto.CouponImportResultDto;
 import com.coupon.backend.dto.CouponRequestDto;
 import com.coupon.backend.dto.CouponResponseDto;
+import com.coupon.backend.security.AuthenticatedUser;
 import com.coupon.backend.service.CouponBrowseService;
+import com.coupon.backend.service.CouponFacetService;
+import com.coupon.backend.service.CouponImportService;
 import com.coupon.backend.service.CouponListingService;
 import com.coupon.backend.service.CouponRedemptionService;
-import com.coupon.backend.util.JwtUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -36,21 +41,20 @@ public class CouponController {
     private CouponRedemptionService couponRedemptionService;
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private CouponFacetService couponFacetService;
+
+    @Autowired
+    private CouponImportService couponImportService;
 
     @PostMapping
     public ResponseEntity<?> listCoupon(@Valid @RequestBody CouponRequestDto request,
-                                        HttpServletRequest httpRequest) {
+                                        @AuthenticationPrincipal AuthenticatedUser currentUser) {
         logger.debug("[COUPON] List coupon request received");
         
         try {
-            String token = httpRequest.getHeader("Authorization").substring(7);
-            String userId = jwtUtil.extractUserId(token);
-            String email = jwtUtil.extractEmail(token);
-            
-            logger.debug("[COUPON] User: {} ({})", email, userId);
+            logger.debug("[COUPON] User: {} ({})", currentUser.email(), currentUser.userId());
             
-            CouponResponseDto saved = couponListingService.save(request, UUID.fromString(userId));
+            CouponResponseDto saved = couponListingService.save(request, currentUser.userId());
                     
             return ResponseEntity.status(HttpStatus.CREATED).body(saved);
         } catch (RuntimeException e) {
@@ -62,6 +66,42 @@ public class CouponController {
         }
     }
 
+    /**
+     * Bulk import from the request body: NDJSON (one CouponRequestDto per line) or CSV with a
+     * header row of field names. Pass format=csv, or send Content-Type text/csv.
+     * Rows are written in chunks; the response lists the rows that were rejected and why.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importCoupons(@RequestParam(required = false) String format,
+                                           HttpServletRequest httpRequest,
+                                           @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        String contentType = httpRequest.getContentType();
+        boolean csv = format != null
+                ? "csv".equalsIgnoreCase(format)
+                : contentType != null && contentType.toLowerCase().startsWith("text/csv");
+        logger.debug("[COUPON] Import request from user: {} - Format: {}", currentUser.userId(), csv ? "CSV" : "NDJSON");
+
+        try {
+            CouponImportResultDto result = couponImportService.importCoupons(httpRequest.getInputStream(),
+                    csv ? CouponImportService.Format.CSV : CouponImportService.Format.NDJSON, currentUser.userId());
+            return ResponseEntity.ok(result);
+        } catch (IOException e) {
+            logger.error("[COUPON] Import aborted while reading the upload: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "Could not read the uploaded file. Please try again."));
+        } catch (RuntimeException e) {
+            logger.error("[COUPON] Import failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Import failed: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Browse coupons. Default is page/size (offset) paging with totals.
+     * Pass mode=cursor (first page) or an after token from nextCursor for keyset paging,
+     * which skips the COUNT query and stays fast for deep scrolling.
+     * view=summary returns compact items without description/terms; details come from GET /coupons/{id}.
+     */
     @GetMapping("/browse")
     public ResponseEntity<?> browseCoupons(
             @RequestParam(required = false, defaultValue = "true") boolean activeOnly,
@@ -71,15 +111,25 @@ public class CouponController {
             @RequestParam(required = false) String search,
             @RequestParam(required = false, defaultValue = "false") boolean includeExpired,
             @RequestParam(required = false, defaultValue = "0") int page,
-            @RequestParam(required = false, defaultValue = "10") int size) {
-        logger.debug("[COUPON] Browse: active={}, platform={}, category={}, discountType={}, search={}, includeExpired={}, page={}, size={}", 
-                activeOnly, platform, category, discountType, search, includeExpired, page, size);
+            @RequestParam(required = false, defaultValue = "10") int size,
+            @RequestParam(required = false, defaultValue = "page") String mode,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false, defaultValue = "full") String view) {
+        logger.debug("[COUPON] Browse: active={}, platform={}, category={}, discountType={}, search={}, includeExpired={}, page={}, size={}, mode={}", 
+                activeOnly, platform, category, discountType, search, includeExpired, page, size, mode);
         
         try {
-            Map<String, Object> response = couponBrowseService.browseCouponsWithFilters(
-                    activeOnly, platform, category, discountType, search, includeExpired, page, size);
+            boolean summary = "summary".equalsIgnoreCase(view);
+            Map<String, Object> response;
+            if (after != null || "cursor".equalsIgnoreCase(mode)) {
+                response = couponBrowseService.browseCouponsAfter(
+                        activeOnly, platform, category, discountType, search, includeExpired, after, size, summary);
+            } else {
+                response = couponBrowseService.browseCouponsWithFilters(
+                        activeOnly, platform, category, discountType, search, includeExpired, page, size, summary);
+            }
             
-            logger.debug("[COUPON] Retrieved page {} with {} coupons", page, 
+            logger.debug("[COUPON] Retrieved page {} with {} coupons", after != null ? after : page, 
                     ((List<?>) response.get("coupons")).size());
             
             return ResponseEntity.ok(response);
@@ -92,6 +142,32 @@ public class CouponController {
         }
     }
 
+    /**
+     * Coupon counts per platform, category and discount type for the given browse filters
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<?> getFacets(
+            @RequestParam(required = false, defaultValue = "true") boolean activeOnly,
+            @RequestParam(required = false) String platform,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String discountType,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false, defaultValue = "false") boolean includeExpired) {
+        logger.debug("[COUPON] Facets: active={}, platform={}, category={}, discountType={}, search={}, includeExpired={}",
+                activeOnly, platform, category, discountType, search, includeExpired);
+
+        try {
+            return ResponseEntity.ok(couponFacetService.getFacets(
+                    activeOnly, platform, category, discountType, search, includeExpired));
+        } catch (RuntimeException e) {
+            logger.error("[COUPON] Facets failed: {}", e.getMessage());
+
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Unable to load filters. Please refresh the page.");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getCoupon(@PathVariable UUID id) {
         logger.debug("[COUPON] Get: {}", id);
@@ -110,19 +186,16 @@ public class CouponController {
 
     @PostMapping("/{id}/view-code")
     public ResponseEntity<?> viewCouponCode(@PathVariable UUID id,
-                                           HttpServletRequest httpRequest) {
+                                           @AuthenticationPrincipal AuthenticatedUser currentUser) {
         logger.debug("[COUPON] View code: {}", id);
         
         try {
-            String token = httpRequest.getHeader("Authorization").substring(7);
-            String userId = jwtUtil.extractUserId(token);
-            
             // Redeem coupon (deducts points, increments soldQuantity, creates redemption record)
-            couponRedemptionService.redeemCoupon(id, UUID.fromString(userId));
+            couponRedemptionService.redeemCoupon(id, currentUser.userId());
             
             Map<String, String> response = new HashMap<>();
             response.put("message", "Coupon redeemed successfully");
-            response.put("userId", userId);
+            response.put("userId", currentUser.userId().toString());
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
             logger.error("[COUPON] View code failed: {}", e.getMessage());
@@ -1,7 +1,7 @@
 package com.coupon.backend.controller;
 
 import com.coupon.backend.dto.EmailRequestDto;
-import com.coupon.backend.service.EmailService;
+import com.coupon.backend.service.EmailOutboxService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/email")
@@ -20,7 +21,7 @@ public class EmailController {
     private static final Logger logger = LoggerFactory.getLogger(EmailController.class);
 
     @Autowired
-    private EmailService emailService;
+    private EmailOutboxService emailOutboxService;
 
     @PostMapping("/send")
     public ResponseEntity<?> sendEmail(@Valid @RequestBody EmailRequestDto emailRequestDto) {
@@ -28,24 +29,26 @@ public class EmailController {
         logger.debug("[EMAIL] Subject: {}", emailRequestDto.subject());
         
         try {
-            emailService.sendPlainText(
+            UUID emailId = emailOutboxService.enqueue(
                 emailRequestDto.to(), 
                 emailRequestDto.subject(), 
-                emailRequestDto.body()
+                emailRequestDto.body(),
+                false
             );
-            logger.info("[EMAIL] Email sent successfully to: {}", emailRequestDto.to());
+            logger.info("[EMAIL] Email {} queued for: {}", emailId, emailRequestDto.to());
             
             Map<String, String> response = new HashMap<>();
-            response.put("message", "Email sent successfully");
+            response.put("message", "Email queued for delivery");
             response.put("recipient", emailRequestDto.to());
+            response.put("id", emailId.toString());
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
             
         } catch (Exception e) {
-            logger.error("[EMAIL] Failed to send email to {}: {}", emailRequestDto.to(), e.getMessage());
+            logger.error("[EMAIL] Failed to queue email to {}: {}", emailRequestDto.to(), e.getMessage());
             
             Map<String, String> error = new HashMap<>();
-            error.put("message", "Failed to send email: " + e.getMessage());
+            error.put("message", "Failed to queue email: " + e.getMessage());
             
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
         }
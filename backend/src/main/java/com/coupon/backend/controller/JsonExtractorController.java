@@ -1,21 +1,30 @@
 package com.coupon.backend.controller;
 
 import com.coupon.backend.dto.CouponRequestDto;
+import com.coupon.backend.dto.ExtractBatchRequestDto;
 import com.coupon.backend.dto.ExtractRequestDto;
 import com.coupon.backend.dto.ExtractResponseDto;
+import com.coupon.backend.dto.ExtractionJobDto;
+import com.coupon.backend.security.AuthenticatedUser;
+import com.coupon.backend.service.ExtractionBatchService;
+import com.coupon.backend.service.ExtractionJobService;
 import com.coupon.backend.service.JsonExtractorService;
 import com.coupon.backend.service.LogHistoryService;
-import com.coupon.backend.util.JwtUtil;
-import jakarta.servlet.http.HttpServletRequest;
+import com.coupon.backend.service.RateLimiter;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -32,26 +41,25 @@ public class JsonExtractorController {
     private LogHistoryService logHistoryService;
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private ExtractionJobService extractionJobService;
+
+    @Autowired
+    private ExtractionBatchService extractionBatchService;
 
     @PostMapping
     public ResponseEntity<?> extract(@Valid @RequestBody ExtractRequestDto request,
-                                    HttpServletRequest httpRequest) {
+                                    @AuthenticationPrincipal AuthenticatedUser currentUser) {
         logger.debug("[EXTRACT_API] Extract request received");
         
         try {
-            // Extract userId from token
-            String token = httpRequest.getHeader("Authorization").substring(7);
-            String userId = jwtUtil.extractUserId(token);
-            
-            logger.debug("[EXTRACT_API] Extracting for user: {}", userId);
+            logger.debug("[EXTRACT_API] Extracting for user: {}", currentUser.userId());
             
             CouponRequestDto result = jsonExtractorService.extractFromPrompt(request.prompt());
             
             // Log extraction activity to database
-            logHistoryService.createLog(
+            logHistoryService.record(
                 "Used AI json extraction",
-                UUID.fromString(userId)
+                currentUser.userId()
             );
                         
             return ResponseEntity.ok(new ExtractResponseDto(result));
@@ -63,4 +71,64 @@ public class JsonExtractorController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
         }
     }
+
+    /**
+     * Extracts several offers in parallel and streams one NDJSON line per offer as it completes.
+     * Lines arrive in completion order and carry the offer's input index; failed offers are
+     * reported as FAILED lines without failing the batch.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> extractBatch(@RequestBody ExtractBatchRequestDto request,
+                                          @AuthenticationPrincipal AuthenticatedUser currentUser,
+                                          @RequestAttribute(name = RateLimiter.Bucket.REQUEST_ATTRIBUTE, required = false)
+                                          RateLimiter.Bucket rateLimit) {
+        List<String> items;
+        try {
+            items = extractionBatchService.toItems(request.text(), request.prompts());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", e.getMessage()));
+        }
+        logger.debug("[EXTRACT_API] Batch of {} offers for user: {}", items.size(), currentUser.userId());
+
+        StreamingResponseBody body = out -> extractionBatchService.extractAll(items, currentUser.userId(), rateLimit, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson;charset=UTF-8"))
+                .body(body);
+    }
+
+    /**
+     * Starts an extraction in the background and returns its job id right away.
+     * Poll GET /extract/jobs/{jobId} or subscribe to /extract/jobs/{jobId}/events for the result.
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitJob(@Valid @RequestBody ExtractRequestDto request,
+                                       @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        logger.debug("[EXTRACT_API] Extraction job requested by user: {}", currentUser.userId());
+
+        ExtractionJobDto job = extractionJobService.submit(request.prompt(), currentUser.userId());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getJob(@PathVariable UUID jobId,
+                                    @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        try {
+            return ResponseEntity.ok(extractionJobService.getJob(jobId, currentUser.userId()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> subscribeToJob(@PathVariable UUID jobId,
+                                            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        try {
+            SseEmitter emitter = extractionJobService.subscribe(jobId, currentUser.userId());
+            return ResponseEntity.ok(emitter);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
 }
@@ -2,20 +2,27 @@ package com.coupon.backend.controller;
 
 import com.coupon.backend.dto.LogHistoryResponseDto;
 import com.coupon.backend.entity.LogHistory;
+import com.coupon.backend.service.LogExportService;
 import com.coupon.backend.service.LogHistoryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/logs")
@@ -24,18 +31,62 @@ public class LogHistoryController {
     @Autowired
     private LogHistoryService logHistoryService;
 
+    @Autowired
+    private LogExportService logExportService;
+
     /**
-     * Get all logs (sorted by newest first) - returns DTO without userId
+     * Get recent logs (sorted by newest first) - returns DTO without userId
+     * Example: GET /api/logs?days=30&limit=1000
      */
     @GetMapping
-    public ResponseEntity<List<LogHistoryResponseDto>> getAllLogs() {
-        List<LogHistory> logs = logHistoryService.getAllLogs();
+    public ResponseEntity<List<LogHistoryResponseDto>> getAllLogs(
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(defaultValue = "1000") int limit) {
+        List<LogHistory> logs = logHistoryService.getRecentLogs(Math.max(days, 1), Math.min(Math.max(limit, 1), 10000));
         List<LogHistoryResponseDto> response = logs.stream()
             .map(log -> new LogHistoryResponseDto(log.getId(), log.getMessage(), log.getCreatedAt()))
             .collect(Collectors.toList());
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Stream logs as NDJSON or CSV, optionally gzipped. Memory use is flat regardless of row count.
+     * Example: GET /api/logs/export?format=csv&gzip=true&from=2025-01-01T00:00:00Z&to=2025-02-01T00:00:00Z&userId=...
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportLogs(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) UUID userId) {
+
+        LogExportService.Format exportFormat = "csv".equalsIgnoreCase(format)
+                ? LogExportService.Format.CSV
+                : LogExportService.Format.NDJSON;
+        String fileName = "logs." + (exportFormat == LogExportService.Format.CSV ? "csv" : "ndjson") + (gzip ? ".gz" : "");
+        MediaType contentType = gzip
+                ? MediaType.parseMediaType("application/gzip")
+                : exportFormat == LogExportService.Format.CSV
+                        ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+                        : MediaType.parseMediaType("application/x-ndjson;charset=UTF-8");
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                try (GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192)) {
+                    logExportService.export(gzipOut, exportFormat, from, to, userId);
+                }
+            } else {
+                logExportService.export(out, exportFormat, from, to, userId);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
     /**
      * Get all logs with pagination
      * Example: GET /api/logs/paginated?page=0&size=20&sort=createdAt,desc
@@ -107,6 +158,17 @@ public class LogHistoryController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Delete all logs of a user
+     */
+    @DeleteMapping("/user/{userId}")
+    public ResponseEntity<Map<String, Integer>> deleteLogsByUserId(@PathVariable String userId) {
+        int deleted = logHistoryService.deleteLogsByUserId(UUID.fromString(userId));
+        Map<String, Integer> response = new HashMap<>();
+        response.put("deleted", deleted);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Get logs count
      */
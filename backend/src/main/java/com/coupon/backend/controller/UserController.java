@@ -1,14 +1,15 @@
 package com.coupon.backend.controller;
 
 import com.coupon.backend.entity.UserDetail;
-import com.coupon.backend.repository.UserDetailRepository;
+import com.coupon.backend.security.AuthenticatedUser;
+import com.coupon.backend.security.CurrentUser;
 import com.coupon.backend.service.UserService;
-import com.coupon.backend.util.JwtUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -23,32 +24,14 @@ public class UserController {
     @Autowired
     private UserService userService;
 
-    @Autowired
-    private JwtUtil jwtUtil;
-
-    @Autowired
-    private UserDetailRepository userDetailRepository;
-
     @GetMapping("/points")
-    public ResponseEntity<?> getUserPoints(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getUserPoints(@CurrentUser UserDetail user) {
         logger.debug("[USER] Get points request received");
         
         try {
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                logger.warn("[USER] Get points rejected - Invalid header");
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("message", "Authorization header missing or invalid"));
-            }
-
-            String token = authHeader.substring(7);
-            String email = jwtUtil.extractEmail(token);
-
-            UserDetail user = userDetailRepository.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
-            Integer points = userService.getUserPoints(user.getId());
+            Integer points = userService.getUserPoints(user);
             
-            logger.debug("[USER] Points retrieved for user: {} - Points: {}", email, points);
+            logger.debug("[USER] Points retrieved for user: {} - Points: {}", user.getEmail(), points);
 
             Map<String, Object> response = new HashMap<>();
             response.put("points", points);
@@ -62,23 +45,11 @@ public class UserController {
     }
 
     @GetMapping("/profile")
-    public ResponseEntity<?> getUserProfile(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getUserProfile(@CurrentUser UserDetail user) {
         logger.debug("[USER] Get profile request received");
         
         try {
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                logger.warn("[USER] Get profile rejected - Invalid header");
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("message", "Authorization header missing or invalid"));
-            }
-
-            String token = authHeader.substring(7);
-            String email = jwtUtil.extractEmail(token);
-
-            UserDetail user = userDetailRepository.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
-            return ResponseEntity.ok(userService.getUserProfile(user.getId()));
+            return ResponseEntity.ok(userService.getUserProfile(user));
         } catch (Exception e) {
             logger.error("[USER] Error fetching profile: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -87,23 +58,11 @@ public class UserController {
     }
 
     @GetMapping("/stats")
-    public ResponseEntity<?> getUserStats(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getUserStats(@CurrentUser UserDetail user) {
         logger.debug("[USER] Get stats request received");
         
         try {
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                logger.warn("[USER] Get stats rejected - Invalid header");
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("message", "Authorization header missing or invalid"));
-            }
-
-            String token = authHeader.substring(7);
-            String email = jwtUtil.extractEmail(token);
-
-            UserDetail user = userDetailRepository.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
-            return ResponseEntity.ok(userService.getUserStats(user.getId()));
+            return ResponseEntity.ok(userService.getUserStats(user));
         } catch (Exception e) {
             logger.error("[USER] Error fetching stats: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -112,23 +71,11 @@ public class UserController {
     }
 
     @GetMapping("/coupons/added")
-    public ResponseEntity<?> getCouponsAdded(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getCouponsAdded(@AuthenticationPrincipal AuthenticatedUser currentUser) {
         logger.debug("[USER] Get added coupons request received");
         
         try {
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                logger.warn("[USER] Get added coupons rejected - Invalid header");
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("message", "Authorization header missing or invalid"));
-            }
-
-            String token = authHeader.substring(7);
-            String email = jwtUtil.extractEmail(token);
-
-            UserDetail user = userDetailRepository.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
-            return ResponseEntity.ok(userService.getCouponsAddedByUser(user.getId()));
+            return ResponseEntity.ok(userService.getCouponsAddedByUser(currentUser.userId()));
         } catch (Exception e) {
             logger.error("[USER] Error fetching added coupons: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -137,23 +84,11 @@ public class UserController {
     }
 
     @GetMapping("/coupons/redeemed")
-    public ResponseEntity<?> getCouponsRedeemed(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getCouponsRedeemed(@AuthenticationPrincipal AuthenticatedUser currentUser) {
         logger.debug("[USER] Get redeemed coupons request received");
         
         try {
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                logger.warn("[USER] Get redeemed coupons rejected - Invalid header");
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("message", "Authorization header missing or invalid"));
-            }
-
-            String token = authHeader.substring(7);
-            String email = jwtUtil.extractEmail(token);
-
-            UserDetail user = userDetailRepository.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
-            return ResponseEntity.ok(userService.getCouponsRedeemedByUser(user.getId()));
+            return ResponseEntity.ok(userService.getCouponsRedeemedByUser(currentUser.userId()));
         } catch (Exception e) {
             logger.error("[USER] Error fetching redeemed coupons: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -0,0 +1,9 @@
+package com.coupon.backend.dto;
+
+import java.time.Instant;
+
+public record AnalyticsPointDto(
+        Instant bucketStart,
+        long value
+) {
+}
@@ -0,0 +1,14 @@
+package com.coupon.backend.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record AnalyticsResponseDto(
+        LocalDate from,
+        LocalDate to,
+        String bucket,
+        String groupBy,
+        String zone,
+        List<AnalyticsSeriesDto> series
+) {
+}
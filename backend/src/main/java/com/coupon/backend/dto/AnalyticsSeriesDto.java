@@ -0,0 +1,11 @@
+package com.coupon.backend.dto;
+
+import java.util.List;
+
+public record AnalyticsSeriesDto(
+        String metric,
+        String group,
+        long total,
+        List<AnalyticsPointDto> points
+) {
+}
@@ -29,5 +29,5 @@ public record CouponBrowseDto(
         Boolean isFree,
         Integer redeemCost,
         Instant createdAt
-) {
+) implements CouponBrowseRow {
 }
@@ -0,0 +1,14 @@
+package com.coupon.backend.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Common shape of the browse list DTOs, enough to build the next keyset cursor.
+ */
+public interface CouponBrowseRow {
+
+    UUID id();
+
+    Instant createdAt();
+}
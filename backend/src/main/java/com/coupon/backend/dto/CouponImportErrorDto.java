@@ -0,0 +1,8 @@
+package com.coupon.backend.dto;
+
+public record CouponImportErrorDto(
+        long row,
+        String code,
+        String message
+) {
+}
@@ -0,0 +1,16 @@
+package com.coupon.backend.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record CouponImportResultDto(
+        UUID importId,
+        long totalRows,
+        long imported,
+        long failed,
+        long pointsAwarded,
+        long elapsedMillis,
+        List<CouponImportErrorDto> errors,
+        boolean errorsTruncated
+) {
+}
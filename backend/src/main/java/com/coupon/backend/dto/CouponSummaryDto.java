@@ -0,0 +1,32 @@
+package com.coupon.backend.dto;
+
+import com.coupon.backend.enums.DiscountType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Compact browse list item: no description, terms or code. Full details come from GET /coupons/{id}.
+ */
+public record CouponSummaryDto(
+        UUID id,
+        String title,
+        String platform,
+        String category,
+        DiscountType discountType,
+        BigDecimal discountValue,
+        BigDecimal minOrderValue,
+        BigDecimal maxDiscountValue,
+        LocalDate validFrom,
+        LocalDate validTill,
+        String usageType,
+        Boolean isActive,
+        Integer soldQuantity,
+        BigDecimal price,
+        Boolean isFree,
+        Integer redeemCost,
+        Instant createdAt
+) implements CouponBrowseRow {
+}
@@ -0,0 +1,10 @@
+package com.coupon.backend.dto;
+
+public record ExtractBatchItemDto(
+        int index,
+        String status,
+        CouponRequestDto result,
+        String error,
+        long elapsedMillis
+) {
+}
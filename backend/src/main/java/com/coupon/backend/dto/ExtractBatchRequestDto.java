@@ -0,0 +1,12 @@
+package com.coupon.backend.dto;
+
+import java.util.List;
+
+/**
+ * Either a list of prompts, or one text with several offers separated by blank lines or "---".
+ */
+public record ExtractBatchRequestDto(
+        String text,
+        List<String> prompts
+) {
+}
@@ -0,0 +1,14 @@
+package com.coupon.backend.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record ExtractionJobDto(
+        UUID jobId,
+        String status,
+        CouponRequestDto result,
+        String error,
+        Instant createdAt,
+        Instant finishedAt
+) {
+}
@@ -0,0 +1,17 @@
+package com.coupon.backend.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record JobRunDto(
+        UUID id,
+        String jobName,
+        String instanceId,
+        String status,
+        Instant scheduledAt,
+        Instant startedAt,
+        Instant finishedAt,
+        Long durationMillis,
+        String error
+) {
+}
@@ -57,6 +57,14 @@ public class Coupon {
     @Column(name = "redeem_cost", columnDefinition = "INTEGER DEFAULT 5")
     private Integer redeemCost = 5;
 
+    // Stock is leased to instances and admitted from memory by FlashSaleService while set
+    @Column(name = "is_flash_sale", columnDefinition = "BOOLEAN DEFAULT false")
+    private Boolean isFlashSale = false;
+
+    // Listed before validFrom: inactive until CouponExpiryService switches it on
+    @Column(name = "is_pending_activation", columnDefinition = "BOOLEAN DEFAULT false")
+    private Boolean isPendingActivation = false;
+
     private BigDecimal price;          
     private Boolean isFree = true;
 
@@ -231,6 +239,22 @@ public class Coupon {
         this.redeemCost = redeemCost;
     }
 
+    public Boolean getIsFlashSale() {
+        return isFlashSale;
+    }
+
+    public void setIsFlashSale(Boolean flashSale) {
+        isFlashSale = flashSale;
+    }
+
+    public Boolean getIsPendingActivation() {
+        return isPendingActivation;
+    }
+
+    public void setIsPendingActivation(Boolean pendingActivation) {
+        isPendingActivation = pendingActivation;
+    }
+
     public BigDecimal getPrice() {
         return price;
     }
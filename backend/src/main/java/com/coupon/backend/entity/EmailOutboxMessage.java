@@ -0,0 +1,115 @@
+package com.coupon.backend.entity;
+
+import com.coupon.backend.enums.EmailStatus;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An email waiting to be delivered, or the record of one that was. Rows are written in the
+ * sender's transaction and picked up by EmailOutboxService; status, attempts and
+ * nextAttemptAt are only changed by the outbox through JDBC.
+ */
+@Entity
+@Table(name = "email_outbox")
+public class EmailOutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false, updatable = false)
+    private String recipient;
+
+    @Column(nullable = false, updatable = false, length = 1000)
+    private String subject;
+
+    @Column(nullable = false, updatable = false, columnDefinition = "TEXT")
+    private String body;
+
+    @Column(nullable = false, updatable = false)
+    private boolean html;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EmailStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    // When the message may next be claimed: its retry time, or the end of a running send's lease
+    @Column(nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(length = 2000)
+    private String lastError;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    private Instant sentAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = Instant.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+
+    public EmailOutboxMessage() {
+    }
+
+    public EmailOutboxMessage(String recipient, String subject, String body, boolean html) {
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+        this.html = html;
+        this.status = EmailStatus.PENDING;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public boolean isHtml() {
+        return html;
+    }
+
+    public EmailStatus getStatus() {
+        return status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public Instant getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getSentAt() {
+        return sentAt;
+    }
+}
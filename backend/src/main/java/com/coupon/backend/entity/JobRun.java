@@ -0,0 +1,85 @@
+package com.coupon.backend.entity;
+
+import com.coupon.backend.enums.JobRunStatus;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One run of a scheduled job. Written by ClusterJobScheduler through JDBC; claimKey is unique
+ * per job firing for cluster singletons, so a firing can only be claimed by one instance.
+ */
+@Entity
+@Table(name = "job_run")
+public class JobRun {
+
+    @Id
+    private UUID id;
+
+    @Column(nullable = false)
+    private String jobName;
+
+    @Column(nullable = false)
+    private String instanceId;
+
+    // Null for per-instance jobs, which every instance runs
+    @Column(unique = true)
+    private String claimKey;
+
+    private Instant scheduledAt;
+
+    @Column(nullable = false)
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    private Long durationMillis;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private JobRunStatus status;
+
+    @Column(length = 2000)
+    private String error;
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public String getClaimKey() {
+        return claimKey;
+    }
+
+    public Instant getScheduledAt() {
+        return scheduledAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public Long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public JobRunStatus getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,77 @@
+package com.coupon.backend.entity;
+
+import com.coupon.backend.enums.PointsReason;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One change to a user's points balance. Rows are only ever inserted;
+ * userdetail.points is the running total of a user's entries.
+ */
+@Entity
+@Table(name = "points_ledger")
+public class PointsLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false, updatable = false)
+    private UUID userId;
+
+    // Positive when earned, negative when spent
+    @Column(nullable = false, updatable = false)
+    private Integer delta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private PointsReason reason;
+
+    // Coupon the points were earned or spent on, if any
+    @Column(updatable = false)
+    private UUID referenceId;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = Instant.now();
+    }
+
+    public PointsLedgerEntry() {
+    }
+
+    public PointsLedgerEntry(UUID userId, Integer delta, PointsReason reason, UUID referenceId) {
+        this.userId = userId;
+        this.delta = delta;
+        this.reason = reason;
+        this.referenceId = referenceId;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public Integer getDelta() {
+        return delta;
+    }
+
+    public PointsReason getReason() {
+        return reason;
+    }
+
+    public UUID getReferenceId() {
+        return referenceId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,8 @@
+package com.coupon.backend.enums;
+
+public enum EmailStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    DEAD
+}
@@ -0,0 +1,7 @@
+package com.coupon.backend.enums;
+
+public enum JobRunStatus {
+    RUNNING,
+    SUCCEEDED,
+    FAILED
+}
@@ -0,0 +1,8 @@
+package com.coupon.backend.enums;
+
+public enum PointsReason {
+    SIGNUP_BONUS,
+    COUPON_LISTED,
+    COUPON_REDEEMED,
+    COUPONS_IMPORTED
+}
@@ -0,0 +1,22 @@
+package com.coupon.backend.event;
+
+import com.coupon.backend.enums.DiscountType;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Published when a new coupon has been listed. Listeners run after the listing transaction commits.
+ */
+public record CouponListedEvent(
+        UUID couponId,
+        UUID listedByUserId,
+        String platform,
+        String category,
+        DiscountType discountType,
+        LocalDate validTill,
+        boolean active,
+        Instant listedAt
+) {
+}
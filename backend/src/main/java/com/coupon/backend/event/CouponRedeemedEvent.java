@@ -0,0 +1,24 @@
+package com.coupon.backend.event;
+
+import com.coupon.backend.enums.DiscountType;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Published when a user redeems a coupon. soldOut is true when this redemption took the last unit
+ * and the coupon was deactivated. Listeners run after the redemption transaction commits.
+ */
+public record CouponRedeemedEvent(
+        UUID couponId,
+        UUID userId,
+        String platform,
+        String category,
+        DiscountType discountType,
+        LocalDate validTill,
+        boolean soldOut,
+        int pointsSpent,
+        Instant redeemedAt
+) {
+}
@@ -0,0 +1,30 @@
+package com.coupon.backend.event;
+
+import com.coupon.backend.enums.DiscountType;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Published when a coupon enters or leaves the active browse results: listed active, sold out,
+ * or switched off (validTill reached) or on (validFrom reached) by the expiry sweeper. Published
+ * on every instance by CouponStatusFeed, outside any transaction, after the change is committed.
+ * seq is the change's position in the feed; it is 0 until the change has been recorded.
+ */
+public record CouponStatusChangedEvent(
+        UUID couponId,
+        String platform,
+        String category,
+        DiscountType discountType,
+        LocalDate validTill,
+        boolean active,
+        Instant changedAt,
+        long seq
+) {
+
+    public CouponStatusChangedEvent(UUID couponId, String platform, String category, DiscountType discountType,
+                                    LocalDate validTill, boolean active, Instant changedAt) {
+        this(couponId, platform, category, discountType, validTill, active, changedAt, 0);
+    }
+}
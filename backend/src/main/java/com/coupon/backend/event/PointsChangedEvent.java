@@ -0,0 +1,19 @@
+package com.coupon.backend.event;
+
+import com.coupon.backend.enums.PointsReason;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published for every points ledger entry. delta is positive when points were earned and negative
+ * when spent. Listeners run after the transaction that wrote the entry commits.
+ */
+public record PointsChangedEvent(
+        UUID userId,
+        int delta,
+        PointsReason reason,
+        UUID referenceId,
+        Instant changedAt
+) {
+}
@@ -0,0 +1,13 @@
+package com.coupon.backend.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published when a new account has been created. Listeners run after the registration transaction commits.
+ */
+public record UserRegisteredEvent(
+        UUID userId,
+        Instant registeredAt
+) {
+}
@@ -1,6 +1,10 @@
 package com.coupon.backend.filter;
 
+import com.coupon.backend.repository.UserDetailRepository;
+import com.coupon.backend.security.AuthenticatedUser;
 import com.coupon.backend.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,14 +13,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -27,7 +32,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private UserDetailsService userDetailsService;
+    private UserDetailRepository userDetailRepository;
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
@@ -38,8 +43,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return false;
         }
         
-        boolean shouldSkip = path.startsWith("/api/auth/") || path.startsWith("/auth/") ||
-               path.equals("/api/auth/signin") || path.equals("/auth/signin") ||
+        // /auth/profile still needs the principal
+        boolean shouldSkip = path.equals("/api/auth/signin") || path.equals("/auth/signin") ||
                path.equals("/api/auth/signup") || path.equals("/auth/signup");
         
         if (shouldSkip) {
@@ -57,49 +62,50 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         logger.debug("[FILTER] Processing request: {} {}", request.getMethod(), path);
         
         final String authHeader = request.getHeader("Authorization");
-        String email = null;
-        String jwt = null;
 
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            jwt = authHeader.substring(7);
+        if (authHeader != null && authHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String jwt = authHeader.substring(7);
             logger.debug("[FILTER] Authorization header found - Token length: {} chars", jwt.length());
-            
-            try {
-                email = jwtUtil.extractEmail(jwt);
-                logger.debug("[FILTER] Email extracted from token: {}", email);
-            } catch (Exception e) {
-                logger.error("[FILTER] Failed to extract email from token - Error: {}", e.getMessage());
-            }
-        } else {
-            logger.debug("[FILTER] No valid Authorization header found");
-        }
 
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            logger.debug("[FILTER] Attempting to authenticate user: {}", email);
-            
             try {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-                logger.debug("[FILTER] User details loaded for: {}", email);
-                
-                if (jwtUtil.validateToken(jwt, email)) {
-                    logger.debug("[FILTER] Token validated successfully - Setting authentication context");
-                    
+                // One signature and expiry check; the principal comes straight from the claims
+                AuthenticatedUser principal = toPrincipal(jwtUtil.parseToken(jwt));
+
+                if (principal != null) {
+                    logger.debug("[FILTER] Token validated - Setting authentication context for: {}", principal.email());
+
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities());
+                            principal, null, List.of(new SimpleGrantedAuthority(principal.role())));
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                 } else {
-                    logger.warn("[FILTER] Token validation failed for user: {}", email);
+                    logger.warn("[FILTER] Token user no longer exists - Request will proceed unauthenticated");
                 }
-            } catch (Exception e) {
-                logger.error("[FILTER] Authentication failed - User: {}, Error: {}", email, e.getMessage());
+            } catch (JwtException | IllegalArgumentException e) {
+                logger.error("[FILTER] Authentication failed - Error: {}", e.getMessage());
             }
-        } else if (email == null) {
-            logger.debug("[FILTER] No email extracted from token - Request will proceed unauthenticated");
+        } else {
+            logger.debug("[FILTER] No valid Authorization header found");
         }
 
         logger.debug("[FILTER] Proceeding with filter chain");
         filterChain.doFilter(request, response);
     }
-}
 
+    private AuthenticatedUser toPrincipal(Claims claims) {
+        String email = claims.getSubject();
+        String userId = claims.get("userId", String.class);
+        String role = claims.get("role", String.class);
+
+        if (userId != null && role != null) {
+            return new AuthenticatedUser(UUID.fromString(userId), email, role);
+        }
+
+        // Tokens issued before the role claim was added: look the user up once
+        logger.debug("[FILTER] Token without role claim - Loading user: {}", email);
+        return userDetailRepository.findByEmail(email)
+                .map(user -> new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole()))
+                .orElse(null);
+    }
+}
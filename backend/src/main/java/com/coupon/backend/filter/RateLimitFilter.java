@@ -0,0 +1,83 @@
+package com.coupon.backend.filter;
+
+import com.coupon.backend.security.AuthenticatedUser;
+import com.coupon.backend.service.RateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Applies the {@link RateLimiter} policies. Runs right after {@link JwtAuthenticationFilter}
+ * so per-user policies can key on the authenticated user; anonymous requests use the client IP.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // CORS preflights never reach a handler, so they do not spend tokens
+        return !rateLimiter.isEnabled() || "OPTIONS".equalsIgnoreCase(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        // Policies are written relative to the context path (/extract, not /api/extract)
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        RateLimiter.Policy policy = rateLimiter.findPolicy(request.getMethod(), path);
+        if (policy == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = resolveKey(policy, request);
+        RateLimiter.Decision decision = rateLimiter.tryAcquire(policy, key);
+        if (decision.allowed()) {
+            request.setAttribute(RateLimiter.Bucket.REQUEST_ATTRIBUTE, new RateLimiter.Bucket(policy, key));
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        logger.warn("[RATE_LIMIT] {} over limit for {} {} - Retry after {}s",
+                key, request.getMethod(), path, decision.retryAfterSeconds());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of(
+                "message", "Too many requests. Please try again in " + decision.retryAfterSeconds() + " seconds."));
+    }
+
+    private static String resolveKey(RateLimiter.Policy policy, HttpServletRequest request) {
+        if (policy.getKeyType() == RateLimiter.KeyType.USER) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+                return "user:" + user.userId();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
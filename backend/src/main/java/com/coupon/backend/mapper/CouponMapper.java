@@ -7,6 +7,7 @@ import com.coupon.backend.entity.Coupon;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
+import java.time.LocalDate;
 
 @Component
 public class CouponMapper {
@@ -29,7 +30,11 @@ public class CouponMapper {
         entity.setRequiresUniqueUser(dto.requiresUniqueUser());
         entity.setUsageType(dto.usageType());
         entity.setGeoRestriction(dto.geoRestriction());
-        entity.setIsActive(dto.isActive() != null ? dto.isActive() : true);
+        boolean active = dto.isActive() != null ? dto.isActive() : true;
+        // A coupon that starts later stays hidden until the expiry sweeper activates it on validFrom
+        boolean startsLater = dto.validFrom() != null && dto.validFrom().isAfter(LocalDate.now());
+        entity.setIsActive(active && !startsLater);
+        entity.setIsPendingActivation(active && startsLater);
         entity.setTotalQuantity(dto.totalQuantity() != null ? dto.totalQuantity() : 1);
         entity.setPrice(dto.price());
         entity.setIsFree(dto.isFree() != null ? dto.isFree() : true);
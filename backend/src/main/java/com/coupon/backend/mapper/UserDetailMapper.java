@@ -6,23 +6,19 @@ import com.coupon.backend.entity.UserDetail;
 import com.coupon.backend.repository.UserDetailRepository;
 import com.coupon.backend.util.ReferralCodeGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 @Component
 public class UserDetailMapper {
 
-    @Autowired
-    private PasswordEncoder passwordEncoder;
-
     @Autowired
     private UserDetailRepository userDetailRepository;
 
-    public UserDetail toEntity(UserDetailsRequestDto userDetailsRequestDto) {
+    public UserDetail toEntity(UserDetailsRequestDto userDetailsRequestDto, String encodedPassword) {
         UserDetail userDetail = new UserDetail();
         userDetail.setFullName(userDetailsRequestDto.fullName());
         userDetail.setEmail(userDetailsRequestDto.email());
-        userDetail.setPassword(passwordEncoder.encode(userDetailsRequestDto.password()));
+        userDetail.setPassword(encodedPassword);
         userDetail.setPoints(5);
         userDetail.setTotalPointsEarned(5); // Initial points count as earned
         userDetail.setTotalPointsSpent(0);
@@ -2,6 +2,8 @@ package com.coupon.backend.repository;
 
 import com.coupon.backend.entity.CouponRedemption;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
@@ -15,9 +17,14 @@ public interface CouponRedemptionRepository extends JpaRepository<CouponRedempti
     
     long countByUserId(UUID userId);
     
+    long countByCouponId(UUID couponId);
+    
     Optional<CouponRedemption> findByUserIdAndCouponId(UUID userId, UUID couponId);
     
     boolean existsByUserIdAndCouponId(UUID userId, UUID couponId);
     
+    @Query("SELECT r.userId FROM CouponRedemption r WHERE r.couponId = :couponId")
+    List<UUID> findUserIdsByCouponId(@Param("couponId") UUID couponId);
+    
     long countByRedeemedAtBetween(Instant startDate, Instant endDate);
 }
@@ -1,17 +1,21 @@
 package com.coupon.backend.repository;
 
 import com.coupon.backend.entity.Coupon;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface CouponRepository extends JpaRepository<Coupon, UUID>, JpaSpecificationExecutor<Coupon> {
+public interface CouponRepository extends JpaRepository<Coupon, UUID>, JpaSpecificationExecutor<Coupon>, CouponRepositoryCustom {
 
     List<Coupon> findByIsActiveTrueOrderByCreatedAtDesc();
     
@@ -24,6 +28,62 @@ public interface CouponRepository extends JpaRepository<Coupon, UUID>, JpaSpecif
     
     Optional<Coupon> findByCodeIgnoreCase(String code);
     
+    /**
+     * Atomically takes one unit of stock. The WHERE clause is re-evaluated against the latest
+     * committed row while holding its lock, so concurrent redemptions can never oversell.
+     * Units still leased to instances from an ended flash sale count as taken.
+     * Deactivates the coupon when this was the last unit. Returns 0 when nothing was claimed.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE coupon c SET sold_quantity = c.sold_quantity + 1, " +
+            "is_active = CASE WHEN c.sold_quantity + 1 >= c.total_quantity THEN false ELSE c.is_active END, " +
+            "updated_at = :now " +
+            "WHERE c.id = :id AND c.is_active = true AND c.is_flash_sale = false " +
+            "AND c.sold_quantity + (SELECT COALESCE(SUM(l.units), 0) FROM flash_sale_lease l WHERE l.coupon_id = c.id) " +
+            "< c.total_quantity", nativeQuery = true)
+    int claimUnit(@Param("id") UUID id, @Param("now") Instant now);
+
+    @Query("SELECT c.isActive FROM Coupon c WHERE c.id = :id")
+    Boolean findIsActiveById(@Param("id") UUID id);
+
+    List<Coupon> findByIsFlashSaleTrue();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Coupon c WHERE c.id = :id")
+    Optional<Coupon> findByIdForUpdate(@Param("id") UUID id);
+
+    /**
+     * Applies flash-sale redemptions that were admitted in memory by counting coupon_redemption,
+     * deactivating the coupon once sold out. Never lowers the count, so a regular claim committed
+     * after the count was taken is not lost.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE coupon c SET sold_quantity = GREATEST(c.sold_quantity, r.sold), " +
+            "is_active = CASE WHEN GREATEST(c.sold_quantity, r.sold) >= c.total_quantity THEN false ELSE c.is_active END, " +
+            "updated_at = :now " +
+            "FROM (SELECT count(*) AS sold FROM coupon_redemption WHERE coupon_id = :id) r " +
+            "WHERE c.id = :id", nativeQuery = true)
+    int syncSoldQuantity(@Param("id") UUID id, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Coupon c SET c.isFlashSale = :flashSale, c.updatedAt = :now WHERE c.id = :id")
+    int setFlashSale(@Param("id") UUID id, @Param("flashSale") boolean flashSale, @Param("now") Instant now);
+
+    /**
+     * Recomputes sold quantity of flash-sale coupons from coupon_redemption, the system of record.
+     * Recovers write-behind updates lost when the application stopped before flushing them.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE coupon c SET sold_quantity = r.sold, " +
+            "is_active = CASE WHEN r.sold >= c.total_quantity THEN false ELSE c.is_active END " +
+            "FROM (SELECT coupon_id, count(*) AS sold FROM coupon_redemption " +
+            "      WHERE coupon_id IN (SELECT id FROM coupon WHERE is_flash_sale = true) GROUP BY coupon_id) r " +
+            "WHERE c.id = r.coupon_id AND c.sold_quantity <> r.sold", nativeQuery = true)
+    int reconcileFlashSaleSoldQuantity();
+    
     // Count coupons created between dates
     long countByCreatedAtBetween(Instant startDate, Instant endDate);
 }
@@ -0,0 +1,30 @@
+package com.coupon.backend.repository;
+
+import com.coupon.backend.dto.CouponBrowseRow;
+import com.coupon.backend.entity.Coupon;
+import com.coupon.backend.enums.DiscountType;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Criteria queries over Coupon that Spring Data cannot derive (grouping, projections).
+ */
+public interface CouponRepositoryCustom {
+
+    /**
+     * Number of coupons matching spec for each (platform, category, discountType) combination.
+     * Platform and category are lowercased the same way CouponSpecification compares them.
+     */
+    List<FacetCount> countFacets(Specification<Coupon> spec);
+
+    /**
+     * Browse rows selected straight into a list DTO (CouponBrowseDto or CouponSummaryDto), so wide
+     * columns the shape does not need are never read and no entities are hydrated.
+     * Ordering comes from the specification.
+     */
+    <T extends CouponBrowseRow> List<T> findBrowseRows(Specification<Coupon> spec, Class<T> shape, int offset, int limit);
+
+    record FacetCount(String platform, String category, DiscountType discountType, Long count) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.coupon.backend.repository;
+
+import com.coupon.backend.dto.CouponBrowseDto;
+import com.coupon.backend.dto.CouponBrowseRow;
+import com.coupon.backend.dto.CouponSummaryDto;
+import com.coupon.backend.entity.Coupon;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class CouponRepositoryImpl implements CouponRepositoryCustom {
+
+    // Constructor argument order of each list DTO, as Coupon attribute names
+    private static final Map<Class<?>, List<String>> BROWSE_SELECTIONS = Map.of(
+            CouponBrowseDto.class, List.of(
+                    "id", "title", "description", "platform", "category", "discountType", "discountValue",
+                    "minOrderValue", "maxDiscountValue", "validFrom", "validTill", "terms", "requiresUniqueUser",
+                    "usageType", "geoRestriction", "isActive", "soldQuantity", "price", "isFree", "redeemCost",
+                    "createdAt"),
+            CouponSummaryDto.class, List.of(
+                    "id", "title", "platform", "category", "discountType", "discountValue", "minOrderValue",
+                    "maxDiscountValue", "validFrom", "validTill", "usageType", "isActive", "soldQuantity", "price",
+                    "isFree", "redeemCost", "createdAt")
+    );
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<FacetCount> countFacets(Specification<Coupon> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<FacetCount> query = cb.createQuery(FacetCount.class);
+        Root<Coupon> root = query.from(Coupon.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        // The specification orders by createdAt/relevance, which is invalid in a grouped query
+        query.orderBy(Collections.emptyList());
+
+        Expression<String> platform = cb.lower(root.get("platform"));
+        Expression<String> category = cb.lower(root.get("category"));
+
+        query.select(cb.construct(FacetCount.class,
+                        platform, category, root.get("discountType"), cb.count(root)))
+                .groupBy(platform, category, root.get("discountType"));
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public <T extends CouponBrowseRow> List<T> findBrowseRows(Specification<Coupon> spec, Class<T> shape,
+                                                              int offset, int limit) {
+        List<String> attributes = BROWSE_SELECTIONS.get(shape);
+        if (attributes == null) {
+            throw new IllegalArgumentException("Unsupported browse shape: " + shape.getSimpleName());
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(shape);
+        Root<Coupon> root = query.from(Coupon.class);
+
+        Selection<?>[] selections = new Selection<?>[attributes.size()];
+        for (int i = 0; i < selections.length; i++) {
+            selections[i] = root.get(attributes.get(i));
+        }
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        query.select(cb.construct(shape, selections));
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        return entityManager.createQuery(query)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
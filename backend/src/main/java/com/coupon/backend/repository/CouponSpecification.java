@@ -1,15 +1,22 @@
 package com.coupon.backend.repository;
 
+import com.coupon.backend.config.PostgresSearchFunctionContributor;
 import com.coupon.backend.entity.Coupon;
 import com.coupon.backend.enums.DiscountType;
+import com.coupon.backend.util.CouponCursor;
 import org.springframework.data.jpa.domain.Specification;
 
 import jakarta.persistence.criteria.Predicate;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.StringJoiner;
+import java.util.UUID;
 
 public class CouponSpecification {
 
+    private static final int MAX_SEARCH_TERMS = 8;
+
     public static Specification<Coupon> filterCoupons(
             Boolean activeOnly, 
             String platform, 
@@ -25,8 +32,9 @@ public class CouponSpecification {
                 predicates.add(criteriaBuilder.isTrue(root.get("isActive")));
             }
 
-            // Filter out expired coupons by default (unless includeExpired is true)
-            if (includeExpired == null || !includeExpired) {
+            // Filter out expired coupons by default (unless includeExpired is true). Active coupons are
+            // never expired: CouponExpiryService switches them off once validTill is reached
+            if ((includeExpired == null || !includeExpired) && (activeOnly == null || !activeOnly)) {
                 predicates.add(criteriaBuilder.greaterThan(
                     root.get("validTill"), 
                     criteriaBuilder.currentTimestamp()
@@ -55,26 +63,78 @@ public class CouponSpecification {
                 }
             }
 
-            if (search != null && !search.trim().isEmpty()) {
-                String searchPattern = "%" + search.trim().toLowerCase() + "%";
-                Predicate titleMatch = criteriaBuilder.like(
-                    criteriaBuilder.lower(root.get("title")), 
-                    searchPattern
-                );
-                Predicate platformMatch = criteriaBuilder.like(
-                    criteriaBuilder.lower(root.get("platform")), 
-                    searchPattern
-                );
-                Predicate descMatch = criteriaBuilder.like(
-                    criteriaBuilder.lower(root.get("description")), 
-                    searchPattern
+            String tsQuery = toPrefixTsQuery(search);
+            if (tsQuery != null) {
+                // Served by the idx_coupon_search GIN index instead of LIKE '%x%' scans
+                predicates.add(criteriaBuilder.isTrue(criteriaBuilder.function(
+                    PostgresSearchFunctionContributor.MATCH_FUNCTION, Boolean.class,
+                    root.get("title"), root.get("platform"), root.get("description"),
+                    criteriaBuilder.literal(tsQuery)
+                )));
+
+                // Most relevant first, newest first among equally relevant coupons
+                query.orderBy(
+                    criteriaBuilder.desc(criteriaBuilder.function(
+                        PostgresSearchFunctionContributor.RANK_FUNCTION, Float.class,
+                        root.get("title"), root.get("platform"), root.get("description"),
+                        criteriaBuilder.literal(tsQuery)
+                    )),
+                    criteriaBuilder.desc(root.get("createdAt"))
                 );
-                predicates.add(criteriaBuilder.or(titleMatch, platformMatch, descMatch));
+            } else {
+                query.orderBy(criteriaBuilder.desc(root.get("createdAt")));
             }
 
-            query.orderBy(criteriaBuilder.desc(root.get("createdAt")));
-
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
     }
+
+    /**
+     * Keyset page boundary for cursor browsing: only coupons strictly after the cursor in
+     * (createdAt DESC, id DESC) order. A null cursor means the first page.
+     * Must be composed after filterCoupons so its ordering wins over relevance ordering.
+     */
+    public static Specification<Coupon> after(CouponCursor cursor) {
+        return (root, query, criteriaBuilder) -> {
+            query.orderBy(
+                criteriaBuilder.desc(root.get("createdAt")),
+                criteriaBuilder.desc(root.get("id"))
+            );
+
+            if (cursor == null) {
+                return criteriaBuilder.conjunction();
+            }
+
+            return criteriaBuilder.or(
+                criteriaBuilder.lessThan(root.<Instant>get("createdAt"), cursor.createdAt()),
+                criteriaBuilder.and(
+                    criteriaBuilder.equal(root.get("createdAt"), cursor.createdAt()),
+                    criteriaBuilder.lessThan(root.<UUID>get("id"), cursor.id())
+                )
+            );
+        };
+    }
+
+    /**
+     * Turns free text into a prefix tsquery ("swig 50" -> "swig:* & 50:*") so that
+     * partially typed words still match. Returns null when nothing searchable is left.
+     */
+    public static String toPrefixTsQuery(String search) {
+        if (search == null || search.trim().isEmpty()) {
+            return null;
+        }
+
+        StringJoiner joiner = new StringJoiner(" & ");
+        int terms = 0;
+        for (String term : search.trim().toLowerCase().split("[^\\p{L}\\p{M}\\p{N}]+")) {
+            if (term.isEmpty()) {
+                continue;
+            }
+            joiner.add(term + ":*");
+            if (++terms == MAX_SEARCH_TERMS) {
+                break;
+            }
+        }
+        return terms == 0 ? null : joiner.toString();
+    }
 }
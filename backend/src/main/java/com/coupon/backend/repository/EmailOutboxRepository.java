@@ -0,0 +1,14 @@
+package com.coupon.backend.repository;
+
+import com.coupon.backend.entity.EmailOutboxMessage;
+import com.coupon.backend.enums.EmailStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, UUID> {
+
+    long countByStatus(EmailStatus status);
+}
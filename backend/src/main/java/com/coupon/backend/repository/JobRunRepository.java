@@ -0,0 +1,18 @@
+package com.coupon.backend.repository;
+
+import com.coupon.backend.entity.JobRun;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface JobRunRepository extends JpaRepository<JobRun, UUID> {
+
+    List<JobRun> findByJobNameOrderByStartedAtDesc(String jobName, Pageable pageable);
+
+    Optional<JobRun> findFirstByJobNameOrderByStartedAtDesc(String jobName);
+}
@@ -1,8 +1,14 @@
 package com.coupon.backend.repository;
 
 import com.coupon.backend.entity.LogHistory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -10,4 +16,12 @@ public interface LogHistoryRepository extends JpaRepository<LogHistory, UUID> {
     List<LogHistory> findByUserId(UUID userId);
     
     long countByUserId(UUID userId);
+
+    // Bounded by createdAt so Postgres only scans the matching monthly partitions
+    List<LogHistory> findByCreatedAtGreaterThanEqual(Instant since, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM LogHistory l WHERE l.userId = :userId")
+    int deleteAllByUserId(@Param("userId") UUID userId);
 }
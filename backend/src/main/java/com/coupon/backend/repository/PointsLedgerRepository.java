@@ -0,0 +1,19 @@
+package com.coupon.backend.repository;
+
+import com.coupon.backend.entity.PointsLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PointsLedgerRepository extends JpaRepository<PointsLedgerEntry, UUID> {
+
+    List<PointsLedgerEntry> findByUserIdOrderByCreatedAtDesc(UUID userId);
+
+    @Query("SELECT COALESCE(SUM(e.delta), 0) FROM PointsLedgerEntry e WHERE e.userId = :userId")
+    long sumDeltaByUserId(@Param("userId") UUID userId);
+}
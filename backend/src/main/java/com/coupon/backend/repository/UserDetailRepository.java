@@ -2,6 +2,8 @@ package com.coupon.backend.repository;
 
 import com.coupon.backend.entity.UserDetail;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
@@ -18,4 +20,24 @@ public interface UserDetailRepository extends JpaRepository<UserDetail, UUID> {
     List<UserDetail> findByRole(String role);
     
     long countByCreatedAtBetween(Instant startDate, Instant endDate);
+
+    /**
+     * Adds points in place and returns the new balance, or null if the user does not exist.
+     */
+    @Query(value = "UPDATE userdetail SET points = COALESCE(points, 0) + :points, " +
+            "total_points_earned = COALESCE(total_points_earned, 0) + :points, updated_at = now() " +
+            "WHERE id = :id RETURNING points", nativeQuery = true)
+    Integer addPoints(@Param("id") UUID id, @Param("points") int points);
+
+    /**
+     * Deducts points in place if the balance covers them and returns the new balance;
+     * null if the user does not exist or has too few points. The balance can never go negative.
+     */
+    @Query(value = "UPDATE userdetail SET points = points - :points, " +
+            "total_points_spent = COALESCE(total_points_spent, 0) + :points, updated_at = now() " +
+            "WHERE id = :id AND points >= :points RETURNING points", nativeQuery = true)
+    Integer deductPoints(@Param("id") UUID id, @Param("points") int points);
+
+    @Query("SELECT COALESCE(u.points, 0) FROM UserDetail u WHERE u.id = :id")
+    Optional<Integer> findPointsById(@Param("id") UUID id);
 }
@@ -0,0 +1,35 @@
+package com.coupon.backend.scheduler;
+
+import org.springframework.scheduling.Trigger;
+
+/**
+ * A scheduled job run by {@link ClusterJobScheduler}. Implement it on a bean and it is picked up
+ * at startup; each run is recorded in job_run with its duration and outcome.
+ */
+public interface ClusterJob {
+
+    enum Concurrency {
+        /**
+         * One run per firing across all instances: the first instance to take the job's advisory
+         * lock and claim the firing runs it, the others skip it.
+         */
+        CLUSTER_SINGLETON,
+        /**
+         * Runs on every instance (for work on local state), but never overlaps itself on one instance.
+         */
+        PER_INSTANCE
+    }
+
+    /**
+     * Unique, stable name; it keys the advisory lock and the run history.
+     */
+    String name();
+
+    Trigger trigger();
+
+    default Concurrency concurrency() {
+        return Concurrency.CLUSTER_SINGLETON;
+    }
+
+    void run() throws Exception;
+}
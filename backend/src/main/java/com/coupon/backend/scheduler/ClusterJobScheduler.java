@@ -0,0 +1,289 @@
+package com.coupon.backend.scheduler;
+
+import com.coupon.backend.dto.JobRunDto;
+import com.coupon.backend.entity.JobRun;
+import com.coupon.backend.repository.JobRunRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Schedules every {@link ClusterJob} bean. The scheduler thread only hands each firing to
+ * {@code scheduledTaskExecutor}; a job that is still running on this instance skips the firing.
+ * <p>
+ * Cluster singletons take a Postgres session advisory lock on a dedicated connection for the
+ * whole run (released by the database if the instance dies), then claim the firing by inserting
+ * its job_run row with a unique claim key. The lock stops two instances running the job at once;
+ * the claim stops a second instance re-running a firing that finished a moment earlier.
+ */
+@Component
+public class ClusterJobScheduler implements SchedulingConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterJobScheduler.class);
+
+    private static final class JobState {
+        private final ClusterJob job;
+        private final long lockKey;
+        private final AtomicBoolean running = new AtomicBoolean();
+        private volatile Instant nextFireAt;
+
+        private final LongAdder started = new LongAdder();
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+
+        private JobState(ClusterJob job) {
+            this.job = job;
+            this.lockKey = lockKey(job.name());
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JobRunRepository jobRunRepository;
+
+    @Autowired
+    @Qualifier("scheduledTaskExecutor")
+    private Executor scheduledTaskExecutor;
+
+    private final Map<String, JobState> jobs = new LinkedHashMap<>();
+    private final String instanceId;
+
+    public ClusterJobScheduler(List<ClusterJob> clusterJobs, @Value("${scheduler.instance-id:}") String instanceId) {
+        for (ClusterJob job : clusterJobs) {
+            if (jobs.putIfAbsent(job.name(), new JobState(job)) != null) {
+                throw new IllegalStateException("Two scheduled jobs are named " + job.name());
+            }
+        }
+        this.instanceId = instanceId.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : instanceId;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        for (JobState state : jobs.values()) {
+            Trigger trigger = state.job.trigger();
+            // The trigger remembers each computed fire time so the run knows which firing it is
+            registrar.addTriggerTask(() -> submit(state, state.nextFireAt), context -> {
+                Instant next = trigger.nextExecution(context);
+                state.nextFireAt = next;
+                return next;
+            });
+            logger.info("[SCHEDULER] Registered job {} ({})", state.job.name(), state.job.concurrency());
+        }
+    }
+
+    /**
+     * Runs a job now, outside its schedule. Singletons still take the lock, so the run is skipped
+     * if another instance is running the job.
+     */
+    public void runNow(String name) {
+        JobState state = jobs.get(name);
+        if (state == null) {
+            throw new RuntimeException("No scheduled job named " + name);
+        }
+        if (!submit(state, Instant.now())) {
+            throw new RuntimeException("Job " + name + " is already running or the executor is full");
+        }
+    }
+
+    public List<Map<String, Object>> getStatus() {
+        List<Map<String, Object>> status = new ArrayList<>();
+        for (JobState state : jobs.values()) {
+            Map<String, Object> job = new HashMap<>();
+            job.put("name", state.job.name());
+            job.put("concurrency", state.job.concurrency().name());
+            job.put("runningHere", state.running.get());
+            job.put("nextFireAt", state.nextFireAt);
+            job.put("started", state.started.sum());
+            job.put("succeeded", state.succeeded.sum());
+            job.put("failed", state.failed.sum());
+            job.put("skipped", state.skipped.sum());
+            try {
+                job.put("lastRun", jobRunRepository.findFirstByJobNameOrderByStartedAtDesc(state.job.name())
+                        .map(ClusterJobScheduler::toDto)
+                        .orElse(null));
+            } catch (DataAccessException e) {
+                job.put("lastRun", null);
+            }
+            status.add(job);
+        }
+        return status;
+    }
+
+    public List<JobRunDto> getRuns(String name, int limit) {
+        if (!jobs.containsKey(name)) {
+            throw new RuntimeException("No scheduled job named " + name);
+        }
+        return jobRunRepository.findByJobNameOrderByStartedAtDesc(name, PageRequest.of(0, Math.max(1, Math.min(limit, 200))))
+                .stream()
+                .map(ClusterJobScheduler::toDto)
+                .toList();
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * The advisory lock key of a job. Work that must not overlap with the job (or run on two
+     * instances at once) can take the same key.
+     */
+    public static long lockKey(String jobName) {
+        return UUID.nameUUIDFromBytes(("dealvista-job:" + jobName).getBytes(StandardCharsets.UTF_8))
+                .getMostSignificantBits();
+    }
+
+    private boolean submit(JobState state, Instant scheduledAt) {
+        if (!state.running.compareAndSet(false, true)) {
+            state.skipped.increment();
+            logger.warn("[SCHEDULER] Job {} is still running here - Skipping firing at {}", state.job.name(), scheduledAt);
+            return false;
+        }
+        try {
+            scheduledTaskExecutor.execute(() -> {
+                try {
+                    execute(state, scheduledAt);
+                } finally {
+                    state.running.set(false);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            state.running.set(false);
+            state.skipped.increment();
+            logger.error("[SCHEDULER] Executor rejected job {} - Skipping firing at {}", state.job.name(), scheduledAt);
+            return false;
+        }
+    }
+
+    private void execute(JobState state, Instant scheduledAt) {
+        if (state.job.concurrency() == ClusterJob.Concurrency.PER_INSTANCE) {
+            try {
+                runAndRecord(state, startRun(state, scheduledAt, null));
+            } catch (DataAccessException e) {
+                state.failed.increment();
+                logger.error("[SCHEDULER] Could not start job {} - Error: {}", state.job.name(), e.getMessage());
+            }
+            return;
+        }
+
+        // A connection of its own: the session lock lives as long as it does, and the job's
+        // own database work does not run inside it
+        try (Connection lockConnection = dataSource.getConnection()) {
+            if (!advisoryLock(lockConnection, "pg_try_advisory_lock", state.lockKey)) {
+                state.skipped.increment();
+                logger.debug("[SCHEDULER] Job {} is running on another instance - Skipping", state.job.name());
+                return;
+            }
+            try {
+                UUID runId = startRun(state, scheduledAt, state.job.name() + "@" + scheduledAt);
+                if (runId == null) {
+                    state.skipped.increment();
+                    logger.debug("[SCHEDULER] Firing {} of job {} already ran on another instance", scheduledAt, state.job.name());
+                    return;
+                }
+                runAndRecord(state, runId);
+            } finally {
+                unlock(lockConnection, state);
+            }
+        } catch (SQLException | DataAccessException e) {
+            state.failed.increment();
+            logger.error("[SCHEDULER] Could not start job {} - Error: {}", state.job.name(), e.getMessage());
+        }
+    }
+
+    /**
+     * Inserts the RUNNING row. Returns null when the claim key is taken, i.e. the firing was claimed elsewhere.
+     */
+    private UUID startRun(JobState state, Instant scheduledAt, String claimKey) {
+        UUID runId = UUID.randomUUID();
+        int inserted = jdbcTemplate.update(
+                "INSERT INTO job_run (id, job_name, instance_id, claim_key, scheduled_at, started_at, status) " +
+                "VALUES (?, ?, ?, ?, ?, ?, 'RUNNING') ON CONFLICT (claim_key) DO NOTHING",
+                runId, state.job.name(), instanceId, claimKey,
+                scheduledAt != null ? Timestamp.from(scheduledAt) : null, Timestamp.from(Instant.now()));
+        return inserted == 1 ? runId : null;
+    }
+
+    private void runAndRecord(JobState state, UUID runId) {
+        state.started.increment();
+        long startedAt = System.nanoTime();
+        String error = null;
+        try {
+            state.job.run();
+            state.succeeded.increment();
+        } catch (Exception e) {
+            state.failed.increment();
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+            logger.error("[SCHEDULER] Job {} failed - Error: {}", state.job.name(), error, e);
+        }
+        long durationMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+        try {
+            jdbcTemplate.update(
+                    "UPDATE job_run SET status = ?, finished_at = ?, duration_millis = ?, error = ? WHERE id = ?",
+                    error == null ? "SUCCEEDED" : "FAILED", Timestamp.from(Instant.now()), durationMillis,
+                    error != null && error.length() > 2000 ? error.substring(0, 2000) : error, runId);
+        } catch (DataAccessException e) {
+            logger.error("[SCHEDULER] Could not record run of job {} - Error: {}", state.job.name(), e.getMessage());
+        }
+        logger.info("[SCHEDULER] Job {} {} in {} ms", state.job.name(), error == null ? "succeeded" : "failed", durationMillis);
+    }
+
+    private static void unlock(Connection connection, JobState state) {
+        try {
+            advisoryLock(connection, "pg_advisory_unlock", state.lockKey);
+        } catch (SQLException e) {
+            // Closing the connection ends the session, which releases the lock anyway
+            logger.warn("[SCHEDULER] Could not unlock job {} - Error: {}", state.job.name(), e.getMessage());
+        }
+    }
+
+    private static boolean advisoryLock(Connection connection, String function, long key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT " + function + "(?)")) {
+            statement.setLong(1, key);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private static JobRunDto toDto(JobRun run) {
+        return new JobRunDto(run.getId(), run.getJobName(), run.getInstanceId(), run.getStatus().name(),
+                run.getScheduledAt(), run.getStartedAt(), run.getFinishedAt(), run.getDurationMillis(), run.getError());
+    }
+}
@@ -0,0 +1,36 @@
+package com.coupon.backend.scheduler;
+
+import com.coupon.backend.service.CouponExpiryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deactivates expired coupons and activates coupons whose start date has arrived.
+ */
+@Component
+public class CouponExpirySweepJob implements ClusterJob {
+
+    @Autowired
+    private CouponExpiryService couponExpiryService;
+
+    @Value("${coupon.expiry.sweep-cron:0 * * * * *}")
+    private String cron;
+
+    @Override
+    public String name() {
+        return "coupon-expiry-sweep";
+    }
+
+    @Override
+    public Trigger trigger() {
+        return new CronTrigger(cron);
+    }
+
+    @Override
+    public void run() {
+        couponExpiryService.sweep();
+    }
+}
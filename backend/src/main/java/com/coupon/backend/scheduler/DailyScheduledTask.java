@@ -3,12 +3,13 @@ package com.coupon.backend.scheduler;
 import com.coupon.backend.service.DailyReportService;
 import com.coupon.backend.service.LogHistoryService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.support.CronTrigger;
 import org.springframework.stereotype.Component;
 
 @Component
-public class DailyScheduledTask {
+public class DailyScheduledTask implements ClusterJob {
 
     @Autowired
     private DailyReportService dailyReportService;
@@ -16,13 +17,27 @@ public class DailyScheduledTask {
     @Autowired
     private LogHistoryService logHistoryService;
 
-    @Async("scheduledTaskExecutor")
-    @Scheduled(cron = "0 59 23 * * *")
-    public void runDailyTask() {
+    @Value("${reports.daily.cron:0 59 23 * * *}")
+    private String cron;
+
+    @Override
+    public String name() {
+        return "daily-report";
+    }
+
+    @Override
+    public Trigger trigger() {
+        return new CronTrigger(cron);
+    }
+
+    // A cluster singleton, so admins get one report however many instances are running
+    @Override
+    public void run() {
         try {
             dailyReportService.generateAndSendDailyReport();
         } catch (Exception e) {
-            logHistoryService.createLog("Daily scheduled task failed: " + e.getMessage(), null);
+            logHistoryService.record("Daily scheduled task failed: " + e.getMessage(), null);
+            throw e;
         }
     }
 }
@@ -0,0 +1,49 @@
+package com.coupon.backend.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Deletes job run history older than {@code scheduler.job-runs.retention-days}.
+ */
+@Component
+public class JobRunRetentionJob implements ClusterJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobRunRetentionJob.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${scheduler.job-runs.retention-days:30}")
+    private long retentionDays;
+
+    @Value("${scheduler.job-runs.retention-cron:0 30 3 * * *}")
+    private String cron;
+
+    @Override
+    public String name() {
+        return "job-run-retention";
+    }
+
+    @Override
+    public Trigger trigger() {
+        return new CronTrigger(cron);
+    }
+
+    @Override
+    public void run() {
+        int removed = jdbcTemplate.update("DELETE FROM job_run WHERE started_at < ? AND status <> 'RUNNING'",
+                Timestamp.from(Instant.now().minus(Duration.ofDays(retentionDays))));
+        logger.info("[SCHEDULER] Removed {} job runs older than {} days", removed, retentionDays);
+    }
+}
@@ -0,0 +1,38 @@
+package com.coupon.backend.scheduler;
+
+import com.coupon.backend.service.LogPartitionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates upcoming loghistory partitions and drops expired ones, on one instance at a time.
+ */
+@Component
+public class LogPartitionMaintenanceJob implements ClusterJob {
+
+    public static final String NAME = "log-partition-maintenance";
+
+    @Autowired
+    private LogPartitionService logPartitionService;
+
+    @Value("${app.logs.partitions.maintenance-cron:0 15 0 * * *}")
+    private String cron;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public Trigger trigger() {
+        return new CronTrigger(cron);
+    }
+
+    @Override
+    public void run() {
+        logPartitionService.maintain();
+    }
+}
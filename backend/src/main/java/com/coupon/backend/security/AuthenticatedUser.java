@@ -0,0 +1,10 @@
+package com.coupon.backend.security;
+
+import java.util.UUID;
+
+/**
+ * Principal put in the SecurityContext by JwtAuthenticationFilter, built from the token claims.
+ * Controllers read it with @AuthenticationPrincipal instead of parsing the token again.
+ */
+public record AuthenticatedUser(UUID userId, String email, String role) {
+}
@@ -0,0 +1,15 @@
+package com.coupon.backend.security;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the signed-in user's UserDetail into a controller method parameter.
+ * Resolved by CurrentUserArgumentResolver, at most once per request.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentUser {
+}
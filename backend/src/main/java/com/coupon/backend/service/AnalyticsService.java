@@ -0,0 +1,212 @@
+package com.coupon.backend.service;
+
+import com.coupon.backend.dto.AnalyticsPointDto;
+import com.coupon.backend.dto.AnalyticsResponseDto;
+import com.coupon.backend.dto.AnalyticsSeriesDto;
+import com.coupon.backend.service.StatsRollupService.Metric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Time series for the admin dashboard, read only from stats_rollup: hour buckets from the HOUR
+ * rows, day buckets from the DAY rows, and weeks (starting Monday) summed from the DAY rows,
+ * all in {@code stats.zone}.
+ * A year of daily data is a few hundred rows per series, so no query touches the source tables.
+ * Every series has a point for every bucket in the range, zero where nothing happened.
+ */
+@Service
+public class AnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsService.class);
+
+    public enum Bucket {
+        HOUR,
+        DAY,
+        WEEK
+    }
+
+    private record SeriesKey(String metric, String dimension) {
+    }
+
+    private static final Set<String> GROUPS = Set.of(
+            StatsRollupService.PLATFORM, StatsRollupService.CATEGORY, StatsRollupService.REASON);
+
+    @Autowired
+    private StatsRollupService statsRollupService;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final int maxBuckets;
+
+    public AnalyticsService(@Value("${analytics.max-buckets:2000}") int maxBuckets) {
+        this.maxBuckets = maxBuckets;
+    }
+
+    /**
+     * Series for each metric over the days [from, to]: one total series per metric, or with groupBy
+     * one series per platform, category or points reason (metrics without that split are left out).
+     */
+    public AnalyticsResponseDto getSeries(LocalDate from, LocalDate to, String bucket, String groupBy, List<String> metrics) {
+        if (to.isBefore(from)) {
+            throw new RuntimeException("The end date must not be before the start date");
+        }
+        Bucket size = parseBucket(bucket);
+        String group = groupBy == null || groupBy.isBlank() ? null : groupBy.trim().toLowerCase(Locale.ROOT);
+        if (group != null && !GROUPS.contains(group)) {
+            throw new RuntimeException("groupBy must be one of " + String.join(", ", GROUPS.stream().sorted().toList()));
+        }
+        List<Metric> selected = parseMetrics(metrics);
+
+        ZoneId zone = statsRollupService.getZone();
+        List<Instant> buckets = bucketStarts(from, to, size, zone);
+        if (buckets.size() > maxBuckets) {
+            throw new RuntimeException("The range has " + buckets.size() + " " + size.name().toLowerCase(Locale.ROOT)
+                    + " buckets; at most " + maxBuckets + " are allowed. Use a shorter range or a larger bucket.");
+        }
+
+        long startedAt = System.nanoTime();
+        // Include events from the last few seconds that are still in memory
+        statsRollupService.flush();
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("granularity", size == Bucket.HOUR ? "HOUR" : "DAY")
+                .addValue("metrics", selected.stream().map(Metric::name).toList())
+                .addValue("zone", zone.getId())
+                .addValue("start", Timestamp.from(from.atStartOfDay(zone).toInstant()))
+                .addValue("end", Timestamp.from(to.plusDays(1).atStartOfDay(zone).toInstant()));
+        String dimensionFilter;
+        if (group == null) {
+            dimensionFilter = "dimension = ''";
+        } else {
+            dimensionFilter = "dimension LIKE :prefix";
+            params.addValue("prefix", group + "=%");
+        }
+        String bucketColumn = size == Bucket.WEEK ? "date_trunc('week', bucket_start, :zone)" : "bucket_start";
+
+        Map<SeriesKey, Map<Instant, Long>> valuesBySeries = new LinkedHashMap<>();
+        namedParameterJdbcTemplate.query(
+                "SELECT metric, dimension, " + bucketColumn + " AS bucket, SUM(value) AS value FROM stats_rollup " +
+                "WHERE granularity = :granularity AND metric IN (:metrics) AND " + dimensionFilter +
+                " AND bucket_start >= :start AND bucket_start < :end GROUP BY 1, 2, 3",
+                params,
+                rs -> {
+                    SeriesKey key = new SeriesKey(rs.getString("metric"), rs.getString("dimension"));
+                    valuesBySeries.computeIfAbsent(key, k -> new LinkedHashMap<>())
+                            .merge(rs.getTimestamp("bucket").toInstant(), rs.getLong("value"), Long::sum);
+                });
+
+        List<AnalyticsSeriesDto> series = new ArrayList<>();
+        for (Metric metric : selected) {
+            if (group == null) {
+                series.add(toSeries(metric, null, buckets,
+                        valuesBySeries.getOrDefault(new SeriesKey(metric.name(), StatsRollupService.TOTAL), Map.of())));
+                continue;
+            }
+            String prefix = group + "=";
+            List<AnalyticsSeriesDto> groups = new ArrayList<>();
+            valuesBySeries.forEach((key, values) -> {
+                if (key.metric().equals(metric.name()) && key.dimension().startsWith(prefix)) {
+                    groups.add(toSeries(metric, key.dimension().substring(prefix.length()), buckets, values));
+                }
+            });
+            groups.sort(Comparator.comparingLong(AnalyticsSeriesDto::total).reversed()
+                    .thenComparing(AnalyticsSeriesDto::group));
+            series.addAll(groups);
+        }
+
+        logger.debug("[ANALYTICS] {} {} buckets, {} series in {} ms", buckets.size(), size, series.size(),
+                (System.nanoTime() - startedAt) / 1_000_000);
+        return new AnalyticsResponseDto(from, to, size.name(), group, zone.getId(), series);
+    }
+
+    private static AnalyticsSeriesDto toSeries(Metric metric, String group, List<Instant> buckets, Map<Instant, Long> values) {
+        List<AnalyticsPointDto> points = new ArrayList<>(buckets.size());
+        long total = 0;
+        for (Instant bucketStart : buckets) {
+            long value = values.getOrDefault(bucketStart, 0L);
+            points.add(new AnalyticsPointDto(bucketStart, value));
+            total += value;
+        }
+        return new AnalyticsSeriesDto(metric.name(), group, total, points);
+    }
+
+    /**
+     * Start of every bucket overlapping [from, to]. Weeks start on Monday, so the first may begin before from.
+     */
+    static List<Instant> bucketStarts(LocalDate from, LocalDate to, Bucket size, ZoneId zone) {
+        List<Instant> starts = new ArrayList<>();
+        switch (size) {
+            case HOUR -> {
+                // Hours of the report zone, which are not UTC hours in zones like Asia/Kolkata
+                ZonedDateTime end = to.plusDays(1).atStartOfDay(zone);
+                for (ZonedDateTime hour = from.atStartOfDay(zone).truncatedTo(ChronoUnit.HOURS);
+                     hour.isBefore(end); hour = hour.plusHours(1)) {
+                    starts.add(hour.toInstant());
+                }
+            }
+            case DAY -> {
+                for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                    starts.add(day.atStartOfDay(zone).toInstant());
+                }
+            }
+            case WEEK -> {
+                for (LocalDate week = from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                     !week.isAfter(to); week = week.plusWeeks(1)) {
+                    starts.add(week.atStartOfDay(zone).toInstant());
+                }
+            }
+        }
+        return starts;
+    }
+
+    private static Bucket parseBucket(String bucket) {
+        if (bucket == null || bucket.isBlank()) {
+            return Bucket.DAY;
+        }
+        try {
+            return Bucket.valueOf(bucket.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("bucket must be one of hour, day, week");
+        }
+    }
+
+    private static List<Metric> parseMetrics(List<String> metrics) {
+        if (metrics == null || metrics.isEmpty()) {
+            return List.of(Metric.values());
+        }
+        List<Metric> selected = new ArrayList<>();
+        for (String metric : metrics) {
+            try {
+                Metric parsed = Metric.valueOf(metric.trim().toUpperCase(Locale.ROOT));
+                if (!selected.contains(parsed)) {
+                    selected.add(parsed);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unknown metric: " + metric);
+            }
+        }
+        return selected;
+    }
+}
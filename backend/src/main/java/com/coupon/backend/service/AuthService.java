@@ -4,14 +4,17 @@ import com.coupon.backend.dto.SingInRequestDto;
 import com.coupon.backend.dto.UserDetailsRequestDto;
 import com.coupon.backend.dto.UserDetailsResponseDto;
 import com.coupon.backend.entity.UserDetail;
+import com.coupon.backend.event.UserRegisteredEvent;
 import com.coupon.backend.mapper.UserDetailMapper;
 import com.coupon.backend.repository.UserDetailRepository;
 import com.coupon.backend.util.JwtUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Optional;
 
@@ -30,37 +33,71 @@ public class AuthService {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private LoginAttemptThrottle loginAttemptThrottle;
 
     @Autowired
     private LogHistoryService logHistoryService;
 
-    public UserDetailsResponseDto register(UserDetailsRequestDto requestDto) {
+    @Autowired
+    private RewardPointsService rewardPointsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * The email is checked first so a duplicate signup never takes a slot in the hashing pool. The
+     * password is then hashed outside any transaction, which covers only the insert.
+     */
+    public UserDetailsResponseDto register(UserDetailsRequestDto requestDto, String clientIp) {
         logger.debug("[AUTH_SERVICE] Starting user registration for email: {}", requestDto.email());
-        
+
+        loginAttemptThrottle.checkAttempt(clientIp, null);
+
         if (userDetailRepository.existsByEmail(requestDto.email())) {
             logger.warn("[AUTH_SERVICE] Registration failed - Email already exists: {}", requestDto.email());
             throw new RuntimeException("Email already registered. Please sign in or use a different email.");
         }
+
+        String encodedPassword = passwordHashingService.encode(requestDto.password());
         
-        logger.debug("[AUTH_SERVICE] Email validation passed - Creating user entity");
-        UserDetail user = userDetailMapper.toEntity(requestDto);
-        
-        logger.debug("[AUTH_SERVICE] Saving user to database");
-        UserDetail savedUser = userDetailRepository.save(user);
+        logger.debug("[AUTH_SERVICE] Email validation passed - Saving user to database");
+        UserDetail savedUser;
+        try {
+            savedUser = transactionTemplate.execute(status -> {
+                UserDetail user = userDetailRepository.save(userDetailMapper.toEntity(requestDto, encodedPassword));
+                rewardPointsService.recordSignupBonus(user.getId(), user.getPoints());
+
+                // Log user activity
+                logHistoryService.record("Account created successfully", user.getId());
+
+                eventPublisher.publishEvent(new UserRegisteredEvent(user.getId(), user.getCreatedAt()));
+                return user;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race against a concurrent signup with the same email
+            logger.warn("[AUTH_SERVICE] Registration failed - Email already exists: {}", requestDto.email());
+            throw new RuntimeException("Email already registered. Please sign in or use a different email.");
+        }
         
         logger.debug("[AUTH_SERVICE] Generating JWT token for user: {}", savedUser.getEmail());
-        String token = jwtUtil.generateToken(savedUser.getEmail(), savedUser.getId().toString());
-        
-        // Log user activity
-        logHistoryService.createLog("Account created successfully", savedUser.getId());
+        String token = jwtUtil.generateToken(savedUser.getEmail(), savedUser.getId().toString(), savedUser.getRole());
         
         logger.debug("[AUTH_SERVICE] Registration complete - Returning response");
         return userDetailMapper.toResponseDto(savedUser, token);
     }
 
-    public UserDetailsResponseDto signin(SingInRequestDto requestDto) {
+    public UserDetailsResponseDto signin(SingInRequestDto requestDto, String clientIp) {
         logger.debug("[AUTH_SERVICE] Starting signin process for email: {}", requestDto.email());
+
+        // Rejects throttled callers before any hashing work is done; the attempt counts as a
+        // failure against the account until the password is verified
+        loginAttemptThrottle.checkAttempt(clientIp, requestDto.email());
         
         Optional<UserDetail> userOptional = userDetailRepository.findByEmail(requestDto.email());
         if (userOptional.isEmpty()) {
@@ -71,17 +108,18 @@ public class AuthService {
         logger.debug("[AUTH_SERVICE] User found - Validating password");
         UserDetail user = userOptional.get();
 
-        if (!passwordEncoder.matches(requestDto.password(), user.getPassword())) {
+        if (!passwordHashingService.matches(requestDto.password(), user.getPassword())) {
             logger.warn("[AUTH_SERVICE] Signin failed - Invalid password for email: {}", requestDto.email());
             throw new RuntimeException("Incorrect password. Please try again.");
         }
+        loginAttemptThrottle.recordSuccess(requestDto.email());
         
         logger.debug("[AUTH_SERVICE] Generating JWT token for user ID: {}", user.getId());
         
-        String token = jwtUtil.generateToken(user.getEmail(), user.getId().toString());
+        String token = jwtUtil.generateToken(user.getEmail(), user.getId().toString(), user.getRole());
         
         // Log user activity
-        logHistoryService.createLog("Signed in successfully", user.getId());
+        logHistoryService.record("Signed in successfully", user.getId());
         
         logger.debug("[AUTH_SERVICE] Signin complete - Returning response");
         return userDetailMapper.toResponseDto(user, token);
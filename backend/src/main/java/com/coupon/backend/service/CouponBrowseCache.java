@@ -0,0 +1,231 @@
+package com.coupon.backend.service;
+
+import com.coupon.backend.enums.DiscountType;
+import com.coupon.backend.event.CouponListedEvent;
+import com.coupon.backend.event.CouponRedeemedEvent;
+import com.coupon.backend.event.CouponStatusChangedEvent;
+import com.coupon.backend.repository.CouponSpecification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU + TTL cache of /coupons/browse responses keyed by the normalized filter tuple.
+ * Entries are dropped as soon as a listing, redemption or expiry sweep could change them. Active-only
+ * results follow is_active, which the sweeper keeps current; the TTL bounds how long other result
+ * sets keep showing a coupon past its validTill.
+ */
+@Component
+public class CouponBrowseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CouponBrowseCache.class);
+
+    /**
+     * Normalized browse filters. Two requests that the specification treats the same way map to the same key.
+     */
+    public record Key(
+            boolean activeOnly,
+            String platform,
+            String category,
+            DiscountType discountType,
+            String search,
+            boolean includeExpired,
+            int page,
+            int size,
+            String after,
+            boolean summary
+    ) {
+        public static Key of(boolean activeOnly, String platform, String category, String discountType,
+                             String search, boolean includeExpired, int page, int size, String after,
+                             boolean summary) {
+            return new Key(
+                    activeOnly,
+                    normalize(platform),
+                    normalize(category),
+                    DiscountType.fromString(discountType),
+                    CouponSpecification.toPrefixTsQuery(search),
+                    includeExpired,
+                    page,
+                    size,
+                    after,
+                    summary
+            );
+        }
+
+        private static String normalize(String value) {
+            return (value == null || value.trim().isEmpty()) ? null : value.trim().toLowerCase();
+        }
+
+        /**
+         * Whether a coupon with these attributes could be part of this result set (ignores search text).
+         */
+        boolean couldContain(String platform, String category, DiscountType discountType,
+                             LocalDate validTill, boolean active) {
+            if (activeOnly && !active) {
+                return false;
+            }
+            // Active-only results rely on is_active alone, which the expiry sweeper keeps in step with validTill
+            if (!activeOnly && !includeExpired && (validTill == null || !validTill.isAfter(LocalDate.now()))) {
+                return false;
+            }
+            if (this.platform != null && !this.platform.equals(normalize(platform))) {
+                return false;
+            }
+            if (this.category != null && !this.category.equals(normalize(category))) {
+                return false;
+            }
+            return this.discountType == null || this.discountType == discountType;
+        }
+    }
+
+    /**
+     * A computed browse response plus the ids of the coupons on it.
+     */
+    public record CachedPage(Map<String, Object> response, Set<UUID> couponIds) {
+    }
+
+    private record Entry(Map<String, Object> response, Set<UUID> couponIds, long expiresAtNanos) {
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    // Access-ordered so the eldest entry is the least recently used one. Guarded by "this".
+    private final LinkedHashMap<Key, Entry> entries;
+
+    // Bumped on every invalidation so a page computed before it is never stored after it
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public CouponBrowseCache(
+            @Value("${coupon.browse-cache.max-entries:1000}") int maxEntries,
+            @Value("${coupon.browse-cache.ttl-seconds:30}") long ttlSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > CouponBrowseCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Map<String, Object> getOrLoad(Key key, Supplier<CachedPage> loader) {
+        if (maxEntries <= 0) {
+            return loader.get().response();
+        }
+
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAtNanos() - System.nanoTime() > 0) {
+                    hits.increment();
+                    return entry.response();
+                }
+                entries.remove(key);
+                expirations.increment();
+            }
+        }
+        misses.increment();
+
+        long startGeneration = generation.get();
+        CachedPage page = loader.get();
+        Map<String, Object> response = Collections.unmodifiableMap(page.response());
+
+        synchronized (this) {
+            if (generation.get() == startGeneration) {
+                entries.put(key, new Entry(response, Set.copyOf(page.couponIds()), System.nanoTime() + ttlNanos));
+            }
+        }
+        return response;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCouponListed(CouponListedEvent event) {
+        // A new coupon is the newest row, so it shifts every page of every result set it belongs to
+        invalidate(key -> key.couldContain(
+                event.platform(), event.category(), event.discountType(), event.validTill(), event.active()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCouponRedeemed(CouponRedeemedEvent event) {
+        invalidate(key -> false, event.couponId());
+        if (event.soldOut()) {
+            // Deactivation removes the coupon from active-only results, shifting their later pages and totals
+            invalidate(key -> key.activeOnly() && key.couldContain(
+                    event.platform(), event.category(), event.discountType(), event.validTill(), true));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCouponStatusChanged(CouponStatusChangedEvent event) {
+        // Entering or leaving active-only results shifts their pages; other pages showing it just go stale
+        invalidate(key -> key.activeOnly() && key.couldContain(
+                event.platform(), event.category(), event.discountType(), event.validTill(), true), event.couponId());
+    }
+
+    public synchronized void clear() {
+        generation.incrementAndGet();
+        invalidations.add(entries.size());
+        entries.clear();
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlSeconds", ttlNanos / 1_000_000_000L);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    private void invalidate(Predicate<Key> keyMatches) {
+        invalidate(keyMatches, null);
+    }
+
+    private synchronized void invalidate(Predicate<Key> keyMatches, UUID couponOnPage) {
+        generation.incrementAndGet();
+
+        int removed = 0;
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> e = it.next();
+            boolean containsCoupon = couponOnPage != null && e.getValue().couponIds().contains(couponOnPage);
+            if (containsCoupon || keyMatches.test(e.getKey())) {
+                it.remove();
+                removed++;
+            }
+        }
+
+        invalidations.add(removed);
+        logger.debug("[BROWSE_CACHE] Invalidated {} entries", removed);
+    }
+}
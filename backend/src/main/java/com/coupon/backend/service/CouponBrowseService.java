@@ -1,20 +1,26 @@
 package com.coupon.backend.service;
 
 import com.coupon.backend.dto.CouponBrowseDto;
+import com.coupon.backend.dto.CouponBrowseRow;
 import com.coupon.backend.dto.CouponResponseDto;
+import com.coupon.backend.dto.CouponSummaryDto;
 import com.coupon.backend.entity.Coupon;
 import com.coupon.backend.mapper.CouponMapper;
 import com.coupon.backend.repository.CouponRepository;
 import com.coupon.backend.repository.CouponSpecification;
+import com.coupon.backend.util.CouponCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -27,6 +33,9 @@ public class CouponBrowseService {
     @Autowired
     private CouponMapper couponMapper;
 
+    @Autowired
+    private CouponBrowseCache browseCache;
+
     public List<CouponResponseDto> browseActive() {
         return couponRepository.findByIsActiveTrueOrderByCreatedAtDesc().stream()
                 .map(couponMapper::toResponseDto)
@@ -45,33 +54,93 @@ public class CouponBrowseService {
         return couponMapper.toResponseDto(coupon);
     }
 
+    /**
+     * Offset-paged browse. Rows are projected straight into the list DTO; summary=true
+     * returns CouponSummaryDto, which also leaves out description and terms.
+     */
     public Map<String, Object> browseCouponsWithFilters(
             boolean activeOnly, String platform, String category, String discountType, String search,
-            boolean includeExpired, int page, int size) {
-        
-        // Create pageable with page number and size
-        Pageable pageable = PageRequest.of(page, size);
-        
-        // Use Specification for database-level filtering with pagination
-        Page<Coupon> couponPage = couponRepository.findAll(
-            CouponSpecification.filterCoupons(activeOnly, platform, category, discountType, search, includeExpired),
-            pageable
-        );
-        
-        // Map to BrowseDto which excludes code
-        List<CouponBrowseDto> coupons = couponPage.getContent().stream()
-                .map(couponMapper::toBrowseDto)
-                .collect(Collectors.toList());
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("coupons", coupons);
-        response.put("currentPage", couponPage.getNumber());
-        response.put("totalPages", couponPage.getTotalPages());
-        response.put("totalItems", couponPage.getTotalElements());
-        response.put("pageSize", couponPage.getSize());
-        response.put("hasNext", couponPage.hasNext());
-        response.put("hasPrevious", couponPage.hasPrevious());
-        
-        return response;
+            boolean includeExpired, int page, int size, boolean summary) {
+
+        CouponBrowseCache.Key key = CouponBrowseCache.Key.of(
+                activeOnly, platform, category, discountType, search, includeExpired, page, size, null, summary);
+
+        return browseCache.getOrLoad(key, () -> {
+            // Create pageable with page number and size
+            Pageable pageable = PageRequest.of(page, size);
+
+            // Use Specification for database-level filtering with pagination
+            Specification<Coupon> spec =
+                    CouponSpecification.filterCoupons(activeOnly, platform, category, discountType, search, includeExpired);
+            List<? extends CouponBrowseRow> rows = couponRepository.findBrowseRows(
+                    spec, shapeOf(summary), (int) pageable.getOffset(), size);
+
+            // COUNT only runs when the total cannot be derived from this page
+            Page<? extends CouponBrowseRow> couponPage =
+                    PageableExecutionUtils.getPage(rows, pageable, () -> couponRepository.count(spec));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("coupons", couponPage.getContent());
+            response.put("currentPage", couponPage.getNumber());
+            response.put("totalPages", couponPage.getTotalPages());
+            response.put("totalItems", couponPage.getTotalElements());
+            response.put("pageSize", couponPage.getSize());
+            response.put("hasNext", couponPage.hasNext());
+            response.put("hasPrevious", couponPage.hasPrevious());
+
+            return new CouponBrowseCache.CachedPage(response, idsOf(rows));
+        });
+    }
+
+    /**
+     * Cursor (keyset) variant of browseCouponsWithFilters. Pages are anchored on (createdAt, id),
+     * so page 5,000 costs the same as page 1 and no COUNT query is issued. Results are ordered
+     * newest first, also when searching.
+     */
+    public Map<String, Object> browseCouponsAfter(
+            boolean activeOnly, String platform, String category, String discountType, String search,
+            boolean includeExpired, String after, int size, boolean summary) {
+
+        CouponCursor cursor = (after == null || after.isBlank()) ? null : CouponCursor.decode(after);
+
+        // page -1 keeps cursor pages apart from offset pages in the cache
+        CouponBrowseCache.Key key = CouponBrowseCache.Key.of(
+                activeOnly, platform, category, discountType, search, includeExpired, -1, size,
+                cursor == null ? "" : after, summary);
+
+        return browseCache.getOrLoad(key, () -> {
+            Specification<Coupon> spec = CouponSpecification
+                    .filterCoupons(activeOnly, platform, category, discountType, search, includeExpired)
+                    .and(CouponSpecification.after(cursor));
+
+            // Fetch one extra row to learn whether another page exists
+            List<? extends CouponBrowseRow> rows = couponRepository.findBrowseRows(spec, shapeOf(summary), 0, size + 1);
+            boolean hasNext = rows.size() > size;
+            if (hasNext) {
+                rows = rows.subList(0, size);
+            }
+
+            String nextCursor = null;
+            if (hasNext) {
+                CouponBrowseRow last = rows.get(rows.size() - 1);
+                nextCursor = new CouponCursor(last.createdAt(), last.id()).encode();
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("coupons", rows);
+            response.put("pageSize", size);
+            response.put("hasNext", hasNext);
+            response.put("nextCursor", nextCursor);
+
+            return new CouponBrowseCache.CachedPage(response, idsOf(rows));
+        });
+    }
+
+    private static Class<? extends CouponBrowseRow> shapeOf(boolean summary) {
+        return summary ? CouponSummaryDto.class : CouponBrowseDto.class;
+    }
+
+    private static Set<UUID> idsOf(List<? extends CouponBrowseRow> rows) {
+        return rows.stream().map(CouponBrowseRow::id).collect(Collectors.toSet());
     }
 }
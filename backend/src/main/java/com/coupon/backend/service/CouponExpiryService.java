@@ -0,0 +1,137 @@
+package com.coupon.backend.service;
+
+import com.coupon.backend.enums.DiscountType;
+import com.coupon.backend.event.CouponStatusChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps coupon.is_active in step with the validity dates, so browse queries can filter on
+ * is_active alone. Coupons whose validTill has been reached are switched off, and coupons listed
+ * ahead of their validFrom are switched on when it arrives (unless by then they have expired or
+ * sold out). Each batch is one UPDATE ... RETURNING over rows claimed with SKIP LOCKED, committed
+ * on its own together with a CouponStatusFeed row per coupon that changed, which every instance
+ * then publishes as a CouponStatusChangedEvent. Scheduled by CouponExpirySweepJob.
+ */
+@Service
+public class CouponExpiryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CouponExpiryService.class);
+
+    private record Changed(UUID id, String platform, String category, DiscountType discountType,
+                           LocalDate validTill, boolean active) {
+    }
+
+    // Matches the browse view: a coupon valid till today is no longer shown today
+    private static final String EXPIRE_SQL = """
+            UPDATE coupon c SET is_active = false, updated_at = ?
+            FROM (SELECT id FROM coupon WHERE is_active = true AND valid_till <= ?
+                  ORDER BY valid_till LIMIT ? FOR UPDATE SKIP LOCKED) due
+            WHERE c.id = due.id
+            RETURNING c.id, c.platform, c.category, c.discount_type, c.valid_till, c.is_active
+            """;
+
+    private static final String ACTIVATE_SQL = """
+            UPDATE coupon c SET is_pending_activation = false, updated_at = ?,
+                   is_active = (c.valid_till IS NULL OR c.valid_till > ?) AND c.sold_quantity < c.total_quantity
+            FROM (SELECT id FROM coupon WHERE is_pending_activation = true AND valid_from <= ?
+                  ORDER BY valid_from LIMIT ? FOR UPDATE SKIP LOCKED) due
+            WHERE c.id = due.id
+            RETURNING c.id, c.platform, c.category, c.discount_type, c.valid_till, c.is_active
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CouponStatusFeed couponStatusFeed;
+
+    @Value("${coupon.expiry.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * Runs both sweeps until nothing is due and returns how many coupons were switched off and on.
+     */
+    public Map<String, Object> sweep() {
+        long startedAt = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        Date todayParam = Date.valueOf(today);
+
+        int expired = 0;
+        int batches = 0;
+        List<Changed> changed;
+        do {
+            changed = update(EXPIRE_SQL, false, Timestamp.from(Instant.now()), todayParam, batchSize);
+            expired += changed.size();
+            batches++;
+        } while (changed.size() == batchSize);
+
+        int activated = 0;
+        int skipped = 0;
+        do {
+            changed = update(ACTIVATE_SQL, true, Timestamp.from(Instant.now()), todayParam, todayParam, batchSize);
+            int activatedNow = (int) changed.stream().filter(Changed::active).count();
+            activated += activatedNow;
+            skipped += changed.size() - activatedNow;
+            batches++;
+        } while (changed.size() == batchSize);
+
+        // Publishes this sweep's changes here right away; other instances pick them up on their next poll
+        couponStatusFeed.poll();
+        couponStatusFeed.removeExpired();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("expired", expired);
+        result.put("activated", activated);
+        result.put("expiredBeforeActivation", skipped);
+        result.put("batches", batches);
+        result.put("elapsedMillis", (System.nanoTime() - startedAt) / 1_000_000);
+        if (expired > 0 || activated > 0 || skipped > 0) {
+            logger.info("[COUPON_EXPIRY] Expired {}, activated {} coupons for {}", expired, activated, today);
+        }
+        return result;
+    }
+
+    /**
+     * Runs one batch and records, in the same transaction, the coupons that ended up active (or
+     * inactive) as intended. Activations that leave a coupon inactive (already expired or sold
+     * out by its start date) change nothing visible and are not recorded.
+     */
+    private List<Changed> update(String sql, boolean activating, Object... params) {
+        return transactionTemplate.execute(status -> {
+            List<Changed> changed = jdbcTemplate.query(sql,
+                    (rs, rowNum) -> new Changed(
+                            rs.getObject("id", UUID.class),
+                            rs.getString("platform"),
+                            rs.getString("category"),
+                            DiscountType.fromString(rs.getString("discount_type")),
+                            rs.getObject("valid_till", LocalDate.class),
+                            rs.getBoolean("is_active")),
+                    params);
+            Instant now = Instant.now();
+            couponStatusFeed.record(changed.stream()
+                    .filter(coupon -> coupon.active() == activating)
+                    .map(coupon -> new CouponStatusChangedEvent(coupon.id(), coupon.platform(), coupon.category(),
+                            coupon.discountType(), coupon.validTill(), coupon.active(), now))
+                    .toList());
+            return changed;
+        });
+    }
+}
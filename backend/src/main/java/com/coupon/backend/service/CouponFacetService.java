@@ -0,0 +1,196 @@
+package com.coupon.backend.service;
+
+import com.coupon.backend.enums.DiscountType;
+import com.coupon.backend.event.CouponStatusChangedEvent;
+import com.coupon.backend.repository.CouponRepository;
+import com.coupon.backend.repository.CouponRepositoryCustom.FacetCount;
+import com.coupon.backend.repository.CouponSpecification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Facet counts (per platform, category and discount type) for the browse filters.
+ *
+ * The default browse view (active coupons) is served from an in-memory count per
+ * (platform, category, discountType) cell. Cells follow CouponStatusFeed, which carries listings,
+ * sell-outs and the expiry sweeper's changes from every instance, so requests never scan the coupon
+ * table. Any other filter combination falls back to a single GROUP BY over CouponSpecification.
+ * <p>
+ * Every change has a feed seq. A rebuild reads the newest seq and the counts from one snapshot, so
+ * changes up to that seq are already counted and later ones are applied on top exactly once.
+ */
+@Service
+public class CouponFacetService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CouponFacetService.class);
+
+    private record Cell(String platform, String category, DiscountType discountType) {
+
+        static Cell of(String platform, String category, DiscountType discountType) {
+            return new Cell(normalize(platform), normalize(category), discountType);
+        }
+
+        private static String normalize(String value) {
+            return (value == null || value.trim().isEmpty()) ? null : value.trim().toLowerCase();
+        }
+    }
+
+    private record Snapshot(long seq, Map<Cell, Long> counts) {
+    }
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private CouponStatusFeed couponStatusFeed;
+
+    private final TransactionTemplate snapshotTransaction;
+    private final Object rebuildLock = new Object();
+
+    // All guarded by "this"
+    private Map<Cell, Long> liveCounts = new HashMap<>();
+    private boolean ready;
+    // Feed changes up to here are reflected in liveCounts
+    private long appliedSeq;
+    // Changes published while a rebuild is reading, replayed onto its result; null when none is running
+    private List<CouponStatusChangedEvent> duringRebuild;
+
+    public CouponFacetService(PlatformTransactionManager transactionManager) {
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * Facet counts for the given browse filters. For each dimension the filter on that same
+     * dimension is ignored, so the UI can show the alternatives ("Amazon (120), Swiggy (45)").
+     */
+    public Map<String, Object> getFacets(boolean activeOnly, String platform, String category,
+                                         String discountType, String search, boolean includeExpired) {
+        Cell filter = Cell.of(platform, category, DiscountType.fromString(discountType));
+
+        Map<Cell, Long> cells;
+        boolean defaultView = activeOnly && !includeExpired && CouponSpecification.toPrefixTsQuery(search) == null;
+        synchronized (this) {
+            cells = (defaultView && ready) ? new HashMap<>(liveCounts) : null;
+        }
+        if (cells == null) {
+            cells = countFromDatabase(activeOnly, search, includeExpired);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("platform", countBy(cells, filter, Cell::platform, true, false, false));
+        response.put("category", countBy(cells, filter, Cell::category, false, true, false));
+        response.put("discountType", countBy(cells, filter, Cell::discountType, false, false, true));
+        response.put("total", cells.entrySet().stream()
+                .filter(e -> matches(e.getKey(), filter, false, false, false))
+                .mapToLong(Map.Entry::getValue)
+                .sum());
+        return response;
+    }
+
+    /**
+     * Recounts the live cells from the database. Runs at startup and periodically to correct any
+     * drift, e.g. from rows changed by hand.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${coupon.facets.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                duringRebuild = new ArrayList<>();
+            }
+            Snapshot snapshot;
+            try {
+                snapshot = snapshotTransaction.execute(status -> new Snapshot(
+                        couponStatusFeed.currentSeq(), countFromDatabase(true, null, false)));
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    duringRebuild = null;
+                }
+                throw e;
+            }
+
+            Map<Cell, Long> live = snapshot.counts();
+            synchronized (this) {
+                long seq = snapshot.seq();
+                for (CouponStatusChangedEvent change : duringRebuild) {
+                    if (change.seq() > seq) {
+                        mergeOrRemove(live, cellOf(change), change.active() ? 1 : -1);
+                        seq = change.seq();
+                    }
+                }
+                duringRebuild = null;
+                liveCounts = live;
+                appliedSeq = seq;
+                ready = true;
+            }
+            logger.debug("[FACETS] Rebuilt {} facet cells at feed seq {}", live.size(), snapshot.seq());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCouponStatusChanged(CouponStatusChangedEvent event) {
+        if (duringRebuild != null) {
+            duringRebuild.add(event);
+        }
+        // Before the first rebuild, or already part of the last one
+        if (!ready || event.seq() <= appliedSeq) {
+            return;
+        }
+        mergeOrRemove(liveCounts, cellOf(event), event.active() ? 1 : -1);
+        appliedSeq = event.seq();
+    }
+
+    private static Cell cellOf(CouponStatusChangedEvent event) {
+        return Cell.of(event.platform(), event.category(), event.discountType());
+    }
+
+    private Map<Cell, Long> countFromDatabase(boolean activeOnly, String search, boolean includeExpired) {
+        Map<Cell, Long> cells = new HashMap<>();
+        for (FacetCount row : couponRepository.countFacets(
+                CouponSpecification.filterCoupons(activeOnly, null, null, null, search, includeExpired))) {
+            cells.merge(Cell.of(row.platform(), row.category(), row.discountType()), row.count(), Long::sum);
+        }
+        return cells;
+    }
+
+    private static <K> Map<K, Long> countBy(Map<Cell, Long> cells, Cell filter, Function<Cell, K> dimension,
+                                            boolean ignorePlatform, boolean ignoreCategory, boolean ignoreType) {
+        Map<K, Long> counts = new TreeMap<>();
+        for (Map.Entry<Cell, Long> e : cells.entrySet()) {
+            K value = dimension.apply(e.getKey());
+            if (value != null && matches(e.getKey(), filter, ignorePlatform, ignoreCategory, ignoreType)) {
+                counts.merge(value, e.getValue(), Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    private static boolean matches(Cell cell, Cell filter,
+                                   boolean ignorePlatform, boolean ignoreCategory, boolean ignoreType) {
+        return (ignorePlatform || filter.platform() == null || filter.platform().equals(cell.platform()))
+                && (ignoreCategory || filter.category() == null || filter.category().equals(cell.category()))
+                && (ignoreType || filter.discountType() == null || filter.discountType() == cell.discountType());
+    }
+
+    private static void mergeOrRemove(Map<Cell, Long> counts, Cell cell, long delta) {
+        counts.compute(cell, (k, current) -> {
+            long next = (current == null ? 0 : current) + delta;
+            return next <= 0 ? null : next;
+        });
+    }
+}
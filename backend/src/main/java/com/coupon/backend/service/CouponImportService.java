@@ -0,0 +1,434 @@
+package com.coupon.backend.service;
+
+import com.coupon.backend.dto.CouponImportErrorDto;
+import com.coupon.backend.dto.CouponImportResultDto;
+import com.coupon.backend.dto.CouponRequestDto;
+import com.coupon.backend.entity.Coupon;
+import com.coupon.backend.enums.PointsReason;
+import com.coupon.backend.event.CouponListedEvent;
+import com.coupon.backend.event.CouponStatusChangedEvent;
+import com.coupon.backend.mapper.CouponMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Imports coupons from an NDJSON or CSV stream. Rows are read one at a time and written in
+ * chunks: code uniqueness is checked with one query per chunk, coupons go in with one JDBC
+ * batch, and the importer's points for the chunk are added with a single ledger entry and
+ * balance update. Each chunk commits on its own, so a failure midway keeps earlier chunks
+ * (and their points) and the result lists every rejected row.
+ */
+@Service
+public class CouponImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CouponImportService.class);
+
+    // Same reward as listing a coupon through POST /coupons
+    private static final int POINTS_PER_COUPON = 5;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO coupon (id, title, description, code, platform, category, discount_type, discount_value,
+                                min_order_value, max_discount_value, valid_from, valid_till, terms, requires_unique_user,
+                                usage_type, geo_restriction, is_active, listed_by_user_id, total_quantity, sold_quantity,
+                                redeem_cost, is_flash_sale, is_pending_activation, price, is_free, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (code) DO NOTHING
+            """;
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    private record ParsedRow(long row, CouponRequestDto request, String error) {
+    }
+
+    private record PendingRow(long row, Coupon coupon) {
+    }
+
+    private interface RowReader {
+        /** Next row, or null at end of input */
+        ParsedRow next() throws IOException;
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CouponMapper couponMapper;
+
+    @Autowired
+    private RewardPointsService rewardPointsService;
+
+    @Autowired
+    private LogHistoryService logHistoryService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CouponStatusFeed couponStatusFeed;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    public CouponImportService(
+            @Value("${coupon.import.chunk-size:1000}") int chunkSize,
+            @Value("${coupon.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public CouponImportResultDto importCoupons(InputStream in, Format format, UUID userId) throws IOException {
+        long startedAt = System.nanoTime();
+        UUID importId = UUID.randomUUID();
+        logger.info("[COUPON_IMPORT] Import {} started by user {} - Format: {}", importId, userId, format);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RowReader rows = format == Format.CSV ? csvReader(reader) : ndjsonReader(reader);
+
+        List<CouponImportErrorDto> errors = new ArrayList<>();
+        long[] failedCount = {0};
+        // Upper-cased codes seen earlier in this file; codes are compared case-insensitively like single listings
+        Set<String> seenCodes = new HashSet<>();
+        List<PendingRow> chunk = new ArrayList<>(chunkSize);
+        long totalRows = 0;
+        long imported = 0;
+
+        ParsedRow parsed;
+        while ((parsed = rows.next()) != null) {
+            totalRows++;
+            // A line holding just "null" parses to no record at all
+            String problem = parsed.error() != null ? parsed.error()
+                    : parsed.request() == null ? "Empty record"
+                    : validate(parsed.request());
+            String code = parsed.request() != null ? normalizeCode(parsed.request().code()) : null;
+            if (problem == null && code != null && !seenCodes.add(code.toUpperCase(Locale.ROOT))) {
+                problem = "Duplicate code in this file";
+            }
+            if (problem != null) {
+                reject(errors, failedCount, parsed.row(), code, problem);
+                continue;
+            }
+
+            Coupon coupon = couponMapper.toEntity(parsed.request());
+            coupon.setId(UUID.randomUUID());
+            coupon.setCode(code);
+            coupon.setListedByUserId(userId);
+            chunk.add(new PendingRow(parsed.row(), coupon));
+
+            if (chunk.size() >= chunkSize) {
+                imported += writeChunk(chunk, userId, importId, errors, failedCount);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            imported += writeChunk(chunk, userId, importId, errors, failedCount);
+        }
+
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+        logger.info("[COUPON_IMPORT] Import {} finished - Rows: {}, Imported: {}, Failed: {}, {} ms",
+                importId, totalRows, imported, failedCount[0], elapsedMillis);
+        return new CouponImportResultDto(importId, totalRows, imported, failedCount[0],
+                imported * POINTS_PER_COUPON, elapsedMillis, errors, failedCount[0] > errors.size());
+    }
+
+    /**
+     * Writes one chunk in its own transaction and returns how many coupons were inserted.
+     */
+    private long writeChunk(List<PendingRow> chunk, UUID userId, UUID importId,
+                            List<CouponImportErrorDto> errors, long[] failedCount) {
+        // Codes that already exist, with one query for the whole chunk
+        Set<String> codes = new HashSet<>();
+        for (PendingRow pending : chunk) {
+            if (pending.coupon().getCode() != null) {
+                codes.add(pending.coupon().getCode().toUpperCase(Locale.ROOT));
+            }
+        }
+        Set<String> existing = codes.isEmpty() ? Set.of() : new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                "SELECT UPPER(code) FROM coupon WHERE UPPER(code) IN (:codes)",
+                new MapSqlParameterSource("codes", codes), String.class));
+
+        List<PendingRow> toInsert = new ArrayList<>(chunk.size());
+        for (PendingRow pending : chunk) {
+            String code = pending.coupon().getCode();
+            if (code != null && existing.contains(code.toUpperCase(Locale.ROOT))) {
+                reject(errors, failedCount, pending.row(), code, "This coupon code already exists");
+            } else {
+                toInsert.add(pending);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return 0;
+        }
+
+        List<PendingRow> inserted = transactionTemplate.execute(status -> {
+            List<PendingRow> done = insertRows(toInsert, status, errors, failedCount);
+            if (!done.isEmpty()) {
+                rewardPointsService.addPointsById(userId, done.size() * POINTS_PER_COUPON,
+                        PointsReason.COUPONS_IMPORTED, importId);
+                logHistoryService.record("Imported " + done.size() + " coupons (import " + importId + ")", userId);
+                for (PendingRow pending : done) {
+                    Coupon c = pending.coupon();
+                    eventPublisher.publishEvent(new CouponListedEvent(
+                            c.getId(), userId, c.getPlatform(), c.getCategory(), c.getDiscountType(),
+                            c.getValidTill(), Boolean.TRUE.equals(c.getIsActive()), c.getCreatedAt()));
+                }
+                couponStatusFeed.record(done.stream()
+                        .map(PendingRow::coupon)
+                        .filter(c -> Boolean.TRUE.equals(c.getIsActive()))
+                        .map(c -> new CouponStatusChangedEvent(c.getId(), c.getPlatform(), c.getCategory(),
+                                c.getDiscountType(), c.getValidTill(), true, c.getCreatedAt()))
+                        .toList());
+            }
+            return done;
+        });
+
+        logger.debug("[COUPON_IMPORT] Chunk written - Inserted: {} of {}", inserted.size(), chunk.size());
+        return inserted.size();
+    }
+
+    /**
+     * One batch INSERT for the chunk. If the batch fails (a value the database rejects), the
+     * chunk is retried row by row behind savepoints so only the offending rows are dropped.
+     */
+    private List<PendingRow> insertRows(List<PendingRow> rows, TransactionStatus status,
+                                        List<CouponImportErrorDto> errors, long[] failedCount) {
+        List<Object[]> params = new ArrayList<>(rows.size());
+        for (PendingRow pending : rows) {
+            params.add(toParams(pending.coupon()));
+        }
+
+        Object batchSavepoint = status.createSavepoint();
+        int[] counts;
+        try {
+            counts = jdbcTemplate.batchUpdate(INSERT_SQL, params);
+            status.releaseSavepoint(batchSavepoint);
+        } catch (DataAccessException e) {
+            status.rollbackToSavepoint(batchSavepoint);
+            logger.warn("[COUPON_IMPORT] Batch insert failed, retrying rows individually: {}", e.getMostSpecificCause().getMessage());
+            counts = new int[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                Object rowSavepoint = status.createSavepoint();
+                try {
+                    counts[i] = jdbcTemplate.update(INSERT_SQL, params.get(i));
+                    status.releaseSavepoint(rowSavepoint);
+                } catch (DataAccessException rowError) {
+                    status.rollbackToSavepoint(rowSavepoint);
+                    counts[i] = -1;
+                    PendingRow pending = rows.get(i);
+                    reject(errors, failedCount, pending.row(), pending.coupon().getCode(),
+                            "Rejected by the database: " + rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+
+        List<PendingRow> inserted = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            PendingRow pending = rows.get(i);
+            if (counts[i] == 0) {
+                // ON CONFLICT: the code was listed by someone else after the existence check
+                reject(errors, failedCount, pending.row(), pending.coupon().getCode(), "This coupon code already exists");
+            } else if (counts[i] != -1) {
+                inserted.add(pending);
+            }
+        }
+        return inserted;
+    }
+
+    private static Object[] toParams(Coupon c) {
+        return new Object[]{
+                c.getId(), c.getTitle(), c.getDescription(), c.getCode(), c.getPlatform(), c.getCategory(),
+                c.getDiscountType() != null ? c.getDiscountType().name() : null,
+                c.getDiscountValue(), c.getMinOrderValue(), c.getMaxDiscountValue(),
+                c.getValidFrom() != null ? Date.valueOf(c.getValidFrom()) : null,
+                c.getValidTill() != null ? Date.valueOf(c.getValidTill()) : null,
+                c.getTerms(), c.getRequiresUniqueUser(), c.getUsageType(), c.getGeoRestriction(),
+                c.getIsActive(), c.getListedByUserId(), c.getTotalQuantity(), c.getSoldQuantity(),
+                c.getRedeemCost(), false, c.getIsPendingActivation(), c.getPrice(), c.getIsFree(),
+                Timestamp.from(c.getCreatedAt()), Timestamp.from(c.getUpdatedAt())
+        };
+    }
+
+    private String validate(CouponRequestDto request) {
+        Set<ConstraintViolation<CouponRequestDto>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<CouponRequestDto> violation = violations.iterator().next();
+            return violation.getPropertyPath() + ": " + violation.getMessage();
+        }
+        // Column limits, checked here so one bad row cannot fail a whole batch
+        if (request.title() == null || request.title().isBlank()) {
+            return "Title is required";
+        }
+        if (request.title().length() > 255) {
+            return "Title must be at most 255 characters";
+        }
+        if (request.description() != null && request.description().length() > 2000) {
+            return "Description must be at most 2000 characters";
+        }
+        if (request.terms() != null && request.terms().length() > 2000) {
+            return "Terms must be at most 2000 characters";
+        }
+        if (request.code() != null && request.code().trim().length() > 255) {
+            return "Code must be at most 255 characters";
+        }
+        if (request.totalQuantity() != null && request.totalQuantity() < 1) {
+            return "Total quantity must be at least 1";
+        }
+        if (request.validFrom() != null && request.validTill() != null && request.validTill().isBefore(request.validFrom())) {
+            return "Valid till must not be before valid from";
+        }
+        return null;
+    }
+
+    private void reject(List<CouponImportErrorDto> errors, long[] failedCount, long row, String code, String message) {
+        failedCount[0]++;
+        if (errors.size() < maxReportedErrors) {
+            errors.add(new CouponImportErrorDto(row, code, message));
+        }
+    }
+
+    private static String normalizeCode(String code) {
+        return code == null || code.trim().isEmpty() ? null : code.trim();
+    }
+
+    private RowReader ndjsonReader(BufferedReader reader) {
+        long[] lineNumber = {0};
+        return () -> {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber[0]++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new ParsedRow(lineNumber[0], objectMapper.readValue(line, CouponRequestDto.class), null);
+                } catch (IOException e) {
+                    return new ParsedRow(lineNumber[0], null, "Invalid JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        };
+    }
+
+    /**
+     * CSV with a header row naming CouponRequestDto fields (e.g. title,code,discountType,discountValue).
+     * Quoted fields may contain commas, doubled quotes and line breaks; empty cells are null.
+     */
+    private RowReader csvReader(BufferedReader reader) throws IOException {
+        List<String> header = readCsvRecord(reader);
+        if (header == null) {
+            return () -> null;
+        }
+        List<String> columns = header.stream().map(String::trim).toList();
+        long[] rowNumber = {0};
+        return () -> {
+            List<String> record;
+            while ((record = readCsvRecord(reader)) != null) {
+                rowNumber[0]++;
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                if (record.size() > columns.size()) {
+                    return new ParsedRow(rowNumber[0], null, "Expected " + columns.size() + " columns but found " + record.size());
+                }
+                Map<String, Object> values = new LinkedHashMap<>();
+                for (int i = 0; i < record.size(); i++) {
+                    if (!record.get(i).isEmpty()) {
+                        values.put(columns.get(i), record.get(i));
+                    }
+                }
+                try {
+                    return new ParsedRow(rowNumber[0], objectMapper.convertValue(values, CouponRequestDto.class), null);
+                } catch (IllegalArgumentException e) {
+                    return new ParsedRow(rowNumber[0], null, "Invalid value: " + e.getMessage());
+                }
+            }
+            return null;
+        };
+    }
+
+    private static List<String> readCsvRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char ch = line.charAt(i);
+                if (quoted) {
+                    if (ch == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (ch == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(ch);
+                    }
+                } else if (ch == '"') {
+                    quoted = true;
+                } else if (ch == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (ch != '\r') {
+                    field.append(ch);
+                }
+            }
+            if (!quoted) {
+                break;
+            }
+            // Line break inside a quoted field
+            line = reader.readLine();
+            if (line == null) {
+                break;
+            }
+            field.append('\n');
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -3,13 +3,18 @@ package com.coupon.backend.service;
 import com.coupon.backend.dto.CouponRequestDto;
 import com.coupon.backend.dto.CouponResponseDto;
 import com.coupon.backend.entity.Coupon;
+import com.coupon.backend.enums.PointsReason;
+import com.coupon.backend.event.CouponListedEvent;
+import com.coupon.backend.event.CouponStatusChangedEvent;
 import com.coupon.backend.mapper.CouponMapper;
 import com.coupon.backend.repository.CouponRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -29,6 +34,12 @@ public class CouponListingService {
     @Autowired
     private LogHistoryService logHistoryService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CouponStatusFeed couponStatusFeed;
+
     @Transactional
     public CouponResponseDto save(CouponRequestDto request, UUID id) {
         if (request.code() != null && !request.code().trim().isEmpty()) {
@@ -49,10 +60,19 @@ public class CouponListingService {
         Coupon saved = couponRepository.save(entity);
         logger.debug("Coupon saved successfully - Code: {}", saved.getCode());
         
-        rewardPointsService.addPointsById(id, 5);
+        rewardPointsService.addPointsById(id, 5, PointsReason.COUPON_LISTED, saved.getId());
         
         // Log user activity
-        logHistoryService.createLog("Listed coupon: " + saved.getId() + ")", id);
+        logHistoryService.record("Listed coupon: " + saved.getId() + ")", id);
+
+        eventPublisher.publishEvent(new CouponListedEvent(
+                saved.getId(), id, saved.getPlatform(), saved.getCategory(), saved.getDiscountType(),
+                saved.getValidTill(), Boolean.TRUE.equals(saved.getIsActive()), saved.getCreatedAt()));
+        if (Boolean.TRUE.equals(saved.getIsActive())) {
+            // Last, so the feed's write lock is held only until commit
+            couponStatusFeed.record(List.of(new CouponStatusChangedEvent(saved.getId(), saved.getPlatform(),
+                    saved.getCategory(), saved.getDiscountType(), saved.getValidTill(), true, saved.getCreatedAt())));
+        }
         
         return couponMapper.toResponseDto(saved);
     }
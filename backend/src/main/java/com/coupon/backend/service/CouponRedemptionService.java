@@ -2,14 +2,21 @@ package com.coupon.backend.service;
 
 import com.coupon.backend.entity.Coupon;
 import com.coupon.backend.entity.CouponRedemption;
+import com.coupon.backend.enums.PointsReason;
+import com.coupon.backend.event.CouponRedeemedEvent;
+import com.coupon.backend.event.CouponStatusChangedEvent;
 import com.coupon.backend.repository.CouponRedemptionRepository;
 import com.coupon.backend.repository.CouponRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -29,10 +36,26 @@ public class CouponRedemptionService {
     @Autowired
     private LogHistoryService logHistoryService;
 
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CouponStatusFeed couponStatusFeed;
+
     @Transactional
     public void redeemCoupon(UUID couponId, UUID userId) {
         logger.debug("[REDEMPTION] User {} redeeming coupon {}", userId, couponId);
 
+        // Flash-sale coupons are admitted from this instance's lease
+        FlashSaleService.Admission admission = flashSaleService.admit(couponId, userId);
+        if (admission != null) {
+            redeemFlashSale(admission, userId);
+            return;
+        }
+
         // Check if already redeemed
         if (redemptionRepository.existsByUserIdAndCouponId(userId, couponId)) {
             throw new RuntimeException("You have already redeemed this coupon");
@@ -47,39 +70,53 @@ public class CouponRedemptionService {
             throw new RuntimeException("This coupon is no longer available");
         }
 
-        // Check availability
-        if (coupon.getSoldQuantity() >= coupon.getTotalQuantity()) {
-            coupon.setIsActive(false);
-            couponRepository.save(coupon);
-            throw new RuntimeException("This coupon has been sold out");
+        // A flash sale this instance has not served yet (e.g. enabled on another instance)
+        if (Boolean.TRUE.equals(coupon.getIsFlashSale())) {
+            redeemFlashSale(flashSaleService.join(coupon, userId), userId);
+            return;
         }
 
         // Get redeem cost
         int redeemCost = coupon.getRedeemCost() != null ? coupon.getRedeemCost() : 5;
 
-        // Deduct points
-        rewardPointsService.deductPointsById(userId, redeemCost);
-
-        // Increment sold quantity
-        coupon.setSoldQuantity(coupon.getSoldQuantity() + 1);
-
-        // Check if sold out
-        if (coupon.getSoldQuantity() >= coupon.getTotalQuantity()) {
-            coupon.setIsActive(false);
-            logger.debug("[REDEMPTION] Coupon {} is now sold out", couponId);
+        // Claim one unit in a single conditional UPDATE. Stock is checked against the latest committed
+        // row under its lock, so concurrent redemptions cannot both take the last unit.
+        if (couponRepository.claimUnit(couponId, Instant.now()) == 0) {
+            throw new RuntimeException("This coupon has been sold out");
         }
 
-        couponRepository.save(coupon);
-
         // Create redemption record
         CouponRedemption redemption = new CouponRedemption();
         redemption.setUserId(userId);
         redemption.setCouponId(couponId);
         redemption.setPointsDeducted(redeemCost);
-        redemptionRepository.save(redemption);
+        try {
+            redemptionRepository.saveAndFlush(redemption);
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race against a concurrent request from the same user
+            throw new RuntimeException("You have already redeemed this coupon");
+        }
+
+        // Deduct points last so the user row is locked only until commit
+        // (an insufficient balance rolls the claimed unit back)
+        rewardPointsService.deductPointsById(userId, redeemCost, PointsReason.COUPON_REDEEMED, couponId);
+
+        boolean soldOut = !Boolean.TRUE.equals(couponRepository.findIsActiveById(couponId));
+        if (soldOut) {
+            logger.debug("[REDEMPTION] Coupon {} is now sold out", couponId);
+        }
+
+        eventPublisher.publishEvent(new CouponRedeemedEvent(
+                couponId, userId, coupon.getPlatform(), coupon.getCategory(), coupon.getDiscountType(),
+                coupon.getValidTill(), soldOut, redeemCost, redemption.getRedeemedAt()));
+        if (soldOut) {
+            couponStatusFeed.record(List.of(new CouponStatusChangedEvent(couponId, coupon.getPlatform(),
+                    coupon.getCategory(), coupon.getDiscountType(), coupon.getValidTill(), false,
+                    redemption.getRedeemedAt())));
+        }
 
         // Log activity
-        logHistoryService.createLog(
+        logHistoryService.record(
                 "Redeemed coupon: " + coupon.getTitle() + " (" + redeemCost + " points)",
                 userId
         );
@@ -87,4 +124,43 @@ public class CouponRedemptionService {
         logger.debug("[REDEMPTION] Successfully redeemed - Coupon: {}, User: {}, Points: {}",
                 couponId, userId, redeemCost);
     }
+
+    /**
+     * Redemption of a unit already admitted by FlashSaleService. The coupon row is not touched here;
+     * its sold quantity is written behind by FlashSaleService once this transaction commits.
+     */
+    private void redeemFlashSale(FlashSaleService.Admission admission, UUID userId) {
+        FlashSaleService.CouponSnapshot coupon = admission.coupon();
+        int redeemCost = coupon.redeemCost();
+
+        CouponRedemption redemption = new CouponRedemption();
+        redemption.setUserId(userId);
+        redemption.setCouponId(coupon.id());
+        redemption.setPointsDeducted(redeemCost);
+        try {
+            redemptionRepository.saveAndFlush(redemption);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("You have already redeemed this coupon");
+        }
+
+        rewardPointsService.deductPointsById(userId, redeemCost, PointsReason.COUPON_REDEEMED, coupon.id());
+
+        eventPublisher.publishEvent(new CouponRedeemedEvent(
+                coupon.id(), userId, coupon.platform(), coupon.category(), coupon.discountType(),
+                coupon.validTill(), admission.lastUnit(), redeemCost, redemption.getRedeemedAt()));
+        if (admission.lastUnit()) {
+            // The row itself is switched off by the write-behind flush
+            couponStatusFeed.record(List.of(new CouponStatusChangedEvent(coupon.id(), coupon.platform(),
+                    coupon.category(), coupon.discountType(), coupon.validTill(), false,
+                    redemption.getRedeemedAt())));
+        }
+
+        logHistoryService.record(
+                "Redeemed coupon: " + coupon.title() + " (" + redeemCost + " points)",
+                userId
+        );
+
+        logger.debug("[REDEMPTION] Flash sale redeemed - Coupon: {}, User: {}, Points: {}",
+                coupon.id(), userId, redeemCost);
+    }
 }
@@ -0,0 +1,137 @@
+package com.coupon.backend.service;
+
+import com.coupon.backend.enums.DiscountType;
+import com.coupon.backend.event.CouponStatusChangedEvent;
+import com.coupon.backend.scheduler.ClusterJobScheduler;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Delivers coupon status changes to every instance. Writers (listing, import, redemption and the
+ * expiry sweeper) record each change in coupon_status_change in the transaction that makes it;
+ * every instance polls the table and
+ * publishes one local CouponStatusChangedEvent per new row, so browse caches, facet counts and
+ * flash sales follow a change on every instance, not only the one that made it.
+ * <p>
+ * Rows are read in seq order. Writers hold a transaction-level advisory lock from their first
+ * insert until commit, so a lower seq can never become visible after a higher one was read.
+ */
+@Service
+@DependsOn("schemaInitializer")
+public class CouponStatusFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(CouponStatusFeed.class);
+
+    private static final long WRITE_LOCK = ClusterJobScheduler.lockKey("coupon-status-feed");
+
+    private static final String INSERT_SQL =
+            "INSERT INTO coupon_status_change (coupon_id, platform, category, discount_type, valid_till, active, changed_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String NEXT_SQL =
+            "SELECT seq, coupon_id, platform, category, discount_type, valid_till, active, changed_at " +
+            "FROM coupon_status_change WHERE seq > ? ORDER BY seq LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${coupon.status-feed.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${coupon.status-feed.retention-hours:24}")
+    private long retentionHours;
+
+    // Everything up to here has been published on this instance
+    private long lastSeq;
+
+    /**
+     * Starts after the newest row: caches built from the database at startup already reflect it.
+     */
+    @PostConstruct
+    public void init() {
+        lastSeq = currentSeq();
+    }
+
+    /**
+     * The newest committed change visible to the current transaction (0 if none).
+     */
+    public long currentSeq() {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(seq), 0) FROM coupon_status_change", Long.class);
+        return max != null ? max : 0;
+    }
+
+    /**
+     * Records changes as part of the current transaction; every instance publishes them once it commits.
+     */
+    public void record(List<CouponStatusChangedEvent> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Coupon status changes must be recorded in a transaction");
+        }
+        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?)", WRITE_LOCK);
+        jdbcTemplate.batchUpdate(INSERT_SQL, changes.stream()
+                .map(change -> new Object[]{change.couponId(), change.platform(), change.category(),
+                        change.discountType() != null ? change.discountType().name() : null,
+                        change.validTill() != null ? Date.valueOf(change.validTill()) : null,
+                        change.active(), Timestamp.from(change.changedAt())})
+                .toList());
+    }
+
+    /**
+     * Publishes every change recorded since the last poll, in order.
+     */
+    @Scheduled(fixedDelayString = "${coupon.status-feed.poll-interval-ms:5000}")
+    public synchronized void poll() {
+        List<CouponStatusChangedEvent> changes;
+        do {
+            changes = jdbcTemplate.query(NEXT_SQL,
+                    (rs, rowNum) -> new CouponStatusChangedEvent(
+                            rs.getObject("coupon_id", UUID.class),
+                            rs.getString("platform"),
+                            rs.getString("category"),
+                            DiscountType.fromString(rs.getString("discount_type")),
+                            rs.getObject("valid_till", LocalDate.class),
+                            rs.getBoolean("active"),
+                            rs.getTimestamp("changed_at").toInstant(),
+                            rs.getLong("seq")),
+                    lastSeq, batchSize);
+            for (CouponStatusChangedEvent change : changes) {
+                eventPublisher.publishEvent(change);
+                lastSeq = change.seq();
+            }
+            if (!changes.isEmpty()) {
+                logger.debug("[COUPON_STATUS] Published {} status changes up to {}", changes.size(), lastSeq);
+            }
+        } while (changes.size() == batchSize);
+    }
+
+    /**
+     * Deletes rows every instance has long since read.
+     */
+    public int removeExpired() {
+        return jdbcTemplate.update("DELETE FROM coupon_status_change WHERE changed_at < ?",
+                Timestamp.from(Instant.now().minus(Duration.ofHours(retentionHours))));
+    }
+}
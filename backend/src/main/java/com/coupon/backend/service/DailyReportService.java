@@ -1,18 +1,16 @@
 package com.coupon.backend.service;
 
 import com.coupon.backend.entity.UserDetail;
-import com.coupon.backend.repository.CouponRedemptionRepository;
-import com.coupon.backend.repository.CouponRepository;
 import com.coupon.backend.repository.UserDetailRepository;
+import com.coupon.backend.service.StatsRollupService.Metric;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class DailyReportService {
@@ -21,33 +19,21 @@ public class DailyReportService {
     private UserDetailRepository userDetailRepository;
 
     @Autowired
-    private CouponRepository couponRepository;
+    private StatsRollupService statsRollupService;
 
     @Autowired
-    private CouponRedemptionRepository couponRedemptionRepository;
-
-    @Autowired
-    private EmailService emailService;
+    private EmailOutboxService emailOutboxService;
 
     @Autowired
     private LogHistoryService logHistoryService;
 
 
     public void generateAndSendDailyReport() {
-        Instant startOfDay = LocalDateTime.now()
-                .truncatedTo(ChronoUnit.DAYS)
-                .atZone(ZoneId.systemDefault())
-                .toInstant();
-
-        Instant endOfDay = LocalDateTime.now()
-                .plusDays(1)
-                .truncatedTo(ChronoUnit.DAYS)
-                .atZone(ZoneId.systemDefault())
-                .toInstant();
-
-        long newRegistrations = userDetailRepository.countByCreatedAtBetween(startOfDay, endOfDay);
-        long newCouponsAdded = couponRepository.countByCreatedAtBetween(startOfDay, endOfDay);
-        long totalRedeemed = couponRedemptionRepository.countByRedeemedAtBetween(startOfDay, endOfDay);
+        // Three rollup rows instead of counting today's users, coupons and redemptions
+        Map<Metric, Long> totals = statsRollupService.getDayTotals(LocalDate.now(statsRollupService.getZone()));
+        long newRegistrations = totals.get(Metric.USERS_REGISTERED);
+        long newCouponsAdded = totals.get(Metric.COUPONS_LISTED);
+        long totalRedeemed = totals.get(Metric.COUPONS_REDEEMED);
 
         List<UserDetail> admins = userDetailRepository.findByRole("ADMIN");
 
@@ -61,19 +47,20 @@ public class DailyReportService {
 
         for (UserDetail admin : admins) {
             try {
-                emailService.sendHtmlEmail(admin.getEmail(), subject, htmlBody);
+                // Delivered by the outbox senders; a slow mail server no longer holds up the scheduler
+                emailOutboxService.enqueue(admin.getEmail(), subject, htmlBody, true);
                 
                 String logMessage = String.format(
-                    "Daily report sent: Registrations=%d, Coupons=%d, Redeemed=%d - Sent to %s",
+                    "Daily report queued: Registrations=%d, Coupons=%d, Redeemed=%d - Sent to %s",
                     newRegistrations, newCouponsAdded, totalRedeemed, admin.getEmail()
                 );
-                logHistoryService.createLog(logMessage, admin.getId());
+                logHistoryService.record(logMessage, admin.getId());
             } catch (Exception e) {
                 String errorMessage = String.format(
-                    "Failed to send daily report to %s: %s",
+                    "Failed to queue daily report for %s: %s",
                     admin.getEmail(), e.getMessage()
                 );
-                logHistoryService.createLog(errorMessage, admin.getId());
+                logHistoryService.record(errorMessage, admin.getId());
             }
         }
     }
@@ -0,0 +1,364 @@
+package com.coupon.backend.service;
+
+import com.coupon.backend.entity.EmailOutboxMessage;
+import com.coupon.backend.repository.EmailOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Email outbox. Callers enqueue messages in their own transaction, so an email exists exactly
+ * when the change that caused it committed, and nobody waits on SMTP. A small pool of sender
+ * threads claims due messages in batches (FOR UPDATE SKIP LOCKED, so several instances can run
+ * side by side) and sends each batch over a single SMTP connection.
+ * <p>
+ * A failed message is retried with exponential backoff until {@code email.outbox.max-attempts};
+ * after that, or when the server rejects the recipient outright, it is marked DEAD and kept for
+ * inspection. A claim is a lease: if an instance dies mid-batch its messages become due again.
+ * While a batch is being sent its lease is renewed every {@code email.outbox.lease-renew-interval-ms},
+ * so a slow batch is not claimed (and sent) again by another sender while this one is working on it.
+ */
+@Service
+public class EmailOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxService.class);
+
+    private record Claimed(UUID id, String recipient, String subject, String body, boolean html, int attempts) {
+    }
+
+    private static final String CLAIM_SQL =
+            "UPDATE email_outbox SET status = 'SENDING', next_attempt_at = ? " +
+            "WHERE id IN (SELECT id FROM email_outbox WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= ? " +
+            "ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, recipient, subject, body, html, attempts";
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final int senders;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    private final Duration retention;
+
+    private final ExecutorService executor;
+    private final AtomicInteger activeSenders = new AtomicInteger();
+
+    // Claimed by this instance and not yet marked sent or failed
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder dead = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    public EmailOutboxService(
+            @Value("${email.outbox.senders:2}") int senders,
+            @Value("${email.outbox.batch-size:20}") int batchSize,
+            @Value("${email.outbox.max-attempts:8}") int maxAttempts,
+            @Value("${email.outbox.initial-backoff-seconds:30}") long initialBackoffSeconds,
+            @Value("${email.outbox.max-backoff-seconds:3600}") long maxBackoffSeconds,
+            @Value("${email.outbox.lease-seconds:120}") long leaseSeconds,
+            @Value("${email.outbox.retention-days:14}") long retentionDays) {
+        this.senders = senders;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = Duration.ofSeconds(initialBackoffSeconds);
+        this.maxBackoff = Duration.ofSeconds(maxBackoffSeconds);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.retention = Duration.ofDays(retentionDays);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(senders, runnable -> {
+            Thread thread = new Thread(runnable, "email-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues an email as part of the current transaction. Senders are woken once it commits.
+     */
+    @Transactional
+    public UUID enqueue(String to, String subject, String body, boolean html) {
+        EmailOutboxMessage message = emailOutboxRepository.save(new EmailOutboxMessage(to, subject, body, html));
+        enqueued.increment();
+        logger.debug("[EMAIL_OUTBOX] Queued email {} to {}", message.getId(), to);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                wakeUp();
+            }
+        });
+        return message.getId();
+    }
+
+    /**
+     * Picks up messages that are due (retries, expired leases, anything a wake-up missed).
+     */
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval-ms:5000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    /**
+     * Starts sender threads up to the pool size. Each drains batches until nothing is due.
+     */
+    public void wakeUp() {
+        int active;
+        while ((active = activeSenders.get()) < senders) {
+            if (activeSenders.compareAndSet(active, active + 1)) {
+                executor.execute(this::drain);
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            while (sendBatch() == batchSize) {
+                // A full batch means more may be waiting
+            }
+        } catch (RuntimeException e) {
+            logger.error("[EMAIL_OUTBOX] Sender stopped - Error: {}", e.getMessage());
+        } finally {
+            activeSenders.decrementAndGet();
+        }
+    }
+
+    /**
+     * Claims up to a batch of due messages, sends them over one connection and records each
+     * outcome. Returns the number claimed.
+     */
+    public int sendBatch() {
+        Instant now = Instant.now();
+        List<Claimed> claimed = jdbcTemplate.query(CLAIM_SQL,
+                (rs, rowNum) -> new Claimed(
+                        rs.getObject("id", UUID.class),
+                        rs.getString("recipient"),
+                        rs.getString("subject"),
+                        rs.getString("body"),
+                        rs.getBoolean("html"),
+                        rs.getInt("attempts")),
+                Timestamp.from(now.plus(lease)), Timestamp.from(now), batchSize);
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+        batches.increment();
+
+        List<UUID> ids = claimed.stream().map(Claimed::id).toList();
+        inFlight.addAll(ids);
+        try {
+            send(claimed);
+        } finally {
+            ids.forEach(inFlight::remove);
+        }
+        return claimed.size();
+    }
+
+    /**
+     * Extends the lease of every message this instance is still sending.
+     */
+    @Scheduled(fixedDelayString = "${email.outbox.lease-renew-interval-ms:30000}")
+    public void renewLeases() {
+        if (inFlight.isEmpty()) {
+            return;
+        }
+        Timestamp leaseUntil = Timestamp.from(Instant.now().plus(lease));
+        // Messages already marked sent or failed are no longer SENDING and keep their state
+        jdbcTemplate.batchUpdate("UPDATE email_outbox SET next_attempt_at = ? WHERE id = ? AND status = 'SENDING'",
+                inFlight.stream().map(id -> new Object[]{leaseUntil, id}).toList());
+    }
+
+    private void send(List<Claimed> claimed) {
+        Map<MimeMessage, Claimed> byMessage = new IdentityHashMap<>();
+        List<Claimed> delivered = new ArrayList<>();
+        for (Claimed email : claimed) {
+            try {
+                byMessage.put(emailService.createMessage(email.recipient(), email.subject(), email.body(), email.html()), email);
+            } catch (MessagingException e) {
+                // A message that cannot be built will not build next time either
+                markFailed(email, "Invalid message: " + e.getMessage(), true);
+            }
+        }
+        if (byMessage.isEmpty()) {
+            return;
+        }
+
+        try {
+            emailService.sendAll(byMessage.keySet().toArray(new MimeMessage[0]));
+            delivered.addAll(byMessage.values());
+        } catch (MailSendException e) {
+            // Without failed messages the error came from closing the connection after every message went out
+            Map<Object, Exception> failures = e.getFailedMessages();
+            for (Map.Entry<MimeMessage, Claimed> entry : byMessage.entrySet()) {
+                Exception failure = failures.get(entry.getKey());
+                if (failure == null) {
+                    delivered.add(entry.getValue());
+                } else {
+                    markFailed(entry.getValue(), failure.getMessage(), isPermanent(failure));
+                }
+            }
+        } catch (MailException e) {
+            // Authentication or connection setup: nothing in the batch was sent
+            logger.warn("[EMAIL_OUTBOX] Batch of {} failed - Error: {}", byMessage.size(), e.getMessage());
+            for (Claimed email : byMessage.values()) {
+                markFailed(email, e.getMessage(), false);
+            }
+        }
+
+        markSent(delivered);
+        logger.debug("[EMAIL_OUTBOX] Batch of {} - {} sent", claimed.size(), delivered.size());
+    }
+
+    /**
+     * Puts a DEAD message back in the queue with a fresh set of attempts.
+     */
+    public void retry(UUID id) {
+        int updated = jdbcTemplate.update(
+                "UPDATE email_outbox SET status = 'PENDING', attempts = 0, next_attempt_at = ? WHERE id = ? AND status = 'DEAD'",
+                Timestamp.from(Instant.now()), id);
+        if (updated == 0) {
+            throw new RuntimeException("No dead email found with that ID");
+        }
+        logger.info("[EMAIL_OUTBOX] Requeued dead email {}", id);
+        wakeUp();
+    }
+
+    @Scheduled(fixedDelayString = "${email.outbox.cleanup-interval-ms:3600000}")
+    public void removeSent() {
+        int removed = jdbcTemplate.update("DELETE FROM email_outbox WHERE status = 'SENT' AND sent_at < ?",
+                Timestamp.from(Instant.now().minus(retention)));
+        if (removed > 0) {
+            logger.debug("[EMAIL_OUTBOX] Removed {} sent emails", removed);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> byStatus = new HashMap<>();
+        jdbcTemplate.query("SELECT status, COUNT(*) FROM email_outbox GROUP BY status",
+                rs -> {
+                    byStatus.put(rs.getString(1), rs.getLong(2));
+                });
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("byStatus", byStatus);
+        stats.put("activeSenders", activeSenders.get());
+        stats.put("senders", senders);
+        stats.put("batchSize", batchSize);
+        stats.put("enqueued", enqueued.sum());
+        stats.put("sent", sent.sum());
+        stats.put("retried", retried.sum());
+        stats.put("dead", dead.sum());
+        stats.put("batches", batches.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            // Claimed messages become due again when their lease runs out
+            logger.warn("[EMAIL_OUTBOX] Senders still running at shutdown");
+        }
+    }
+
+    private void markSent(List<Claimed> delivered) {
+        if (delivered.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(
+                "UPDATE email_outbox SET status = 'SENT', attempts = attempts + 1, sent_at = ?, last_error = NULL WHERE id = ?",
+                delivered.stream().map(email -> new Object[]{now, email.id()}).toList());
+        sent.add(delivered.size());
+    }
+
+    private void markFailed(Claimed email, String error, boolean permanent) {
+        int attempts = email.attempts() + 1;
+        String lastError = error != null && error.length() > 2000 ? error.substring(0, 2000) : error;
+        if (permanent || attempts >= maxAttempts) {
+            jdbcTemplate.update(
+                    "UPDATE email_outbox SET status = 'DEAD', attempts = ?, last_error = ? WHERE id = ?",
+                    attempts, lastError, email.id());
+            dead.increment();
+            logger.error("[EMAIL_OUTBOX] Giving up on email {} to {} after {} attempts - Error: {}",
+                    email.id(), email.recipient(), attempts, error);
+            return;
+        }
+
+        Duration delay = backoff(attempts, initialBackoff, maxBackoff);
+        jdbcTemplate.update(
+                "UPDATE email_outbox SET status = 'PENDING', attempts = ?, last_error = ?, next_attempt_at = ? WHERE id = ?",
+                attempts, lastError, Timestamp.from(Instant.now().plus(delay)), email.id());
+        retried.increment();
+        logger.warn("[EMAIL_OUTBOX] Email {} failed (attempt {}), retrying in {}s - Error: {}",
+                email.id(), attempts, delay.toSeconds(), error);
+    }
+
+    /**
+     * initial * 2^(attempt - 1), capped at max, then randomized down to half so that
+     * messages failing together do not retry together.
+     */
+    static Duration backoff(int attempt, Duration initial, Duration max) {
+        long ceiling = initial.toMillis() << Math.min(attempt - 1, 30);
+        if (ceiling <= 0 || ceiling > max.toMillis()) {
+            ceiling = max.toMillis();
+        }
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1));
+    }
+
+    /**
+     * The server rejected the recipient (a 5xx reply), so retrying cannot help.
+     */
+    private static boolean isPermanent(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SendFailedException sendFailed
+                    && sendFailed.getInvalidAddresses() != null
+                    && sendFailed.getInvalidAddresses().length > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
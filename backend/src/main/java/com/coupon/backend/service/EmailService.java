@@ -25,13 +25,25 @@ public class EmailService {
     }
 
     public void sendHtmlEmail(String to, String subject, String htmlContent) throws MessagingException {
+        javaMailSender.send(createMessage(to, subject, htmlContent, true));
+    }
+
+    public MimeMessage createMessage(String to, String subject, String content, boolean html) throws MessagingException {
         MimeMessage message = javaMailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-        
+        MimeMessageHelper helper = new MimeMessageHelper(message, html, "UTF-8");
+
         helper.setTo(to);
         helper.setSubject(subject);
-        helper.setText(htmlContent, true);
-        javaMailSender.send(message);
+        helper.setText(content, html);
+        return message;
+    }
+
+    /**
+     * Sends all messages over one SMTP connection. Throws MailSendException listing the
+     * messages that failed; the others were accepted by the server.
+     */
+    public void sendAll(MimeMessage... messages) {
+        javaMailSender.send(messages);
     }
 
 }
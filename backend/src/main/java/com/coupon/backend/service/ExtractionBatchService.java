@@ -0,0 +1,195 @@
+package com.coupon.backend.service;
+
+import com.coupon.backend.dto.CouponRequestDto;
+import com.coupon.backend.dto.ExtractBatchItemDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Pattern;
+
+/**
+ * Extracts many offers at once: one virtual thread per offer, at most
+ * {@code extract.batch.concurrency} extractor calls in flight per batch, each holding a permit
+ * from the pool ExtractionJobService shares across all extractions, and each result written
+ * as an NDJSON line as soon as it completes (so out of input order; lines carry the input
+ * index). Every offer costs one token from the request's rate-limit bucket (the extract-batch
+ * policy, whose burst fits a full batch): the request paid for the first, the rest are charged
+ * here in input order. A failed item, including one over the rate limit, becomes a FAILED line
+ * and never fails the batch.
+ */
+@Service
+public class ExtractionBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExtractionBatchService.class);
+
+    // A line of dashes, stars or equals signs, or two or more blank lines
+    private static final Pattern STRONG_SEPARATOR = Pattern.compile("\\n\\s*(?:-{3,}|\\*{3,}|={3,})\\s*\\n|\\n\\s*\\n\\s*\\n");
+    private static final Pattern BLANK_LINE = Pattern.compile("\\n\\s*\\n");
+
+    @Autowired
+    private ExtractionJobService extractionJobService;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private LogHistoryService logHistoryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final int concurrency;
+    private final int maxItems;
+
+    public ExtractionBatchService(
+            @Value("${extract.batch.concurrency:8}") int concurrency,
+            @Value("${extract.batch.max-items:50}") int maxItems) {
+        this.concurrency = concurrency;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * Offers to extract: the given prompts, or the text split into offers. Throws when empty or over the limit.
+     */
+    public List<String> toItems(String text, List<String> prompts) {
+        List<String> items = new ArrayList<>();
+        if (prompts != null && !prompts.isEmpty()) {
+            for (String prompt : prompts) {
+                if (prompt != null && !prompt.isBlank()) {
+                    items.add(prompt.trim());
+                }
+            }
+        } else if (text != null) {
+            items = splitOffers(text);
+        }
+
+        if (items.isEmpty()) {
+            throw new RuntimeException("No offers found in the request");
+        }
+        if (items.size() > maxItems) {
+            throw new RuntimeException("A batch can contain at most " + maxItems + " offers");
+        }
+        return items;
+    }
+
+    /**
+     * Splits pasted text on separator lines or double blank lines; if that finds a single
+     * offer, single blank lines are used instead.
+     */
+    static List<String> splitOffers(String text) {
+        String normalized = "\n" + text.replace("\r\n", "\n") + "\n";
+        List<String> offers = nonBlank(STRONG_SEPARATOR.split(normalized));
+        if (offers.size() <= 1) {
+            offers = nonBlank(BLANK_LINE.split(normalized));
+        }
+        return offers;
+    }
+
+    /**
+     * Runs the batch and writes one NDJSON line per item to the stream as each finishes.
+     * rateLimit is the bucket the request was charged to, or null when it is not limited.
+     */
+    public void extractAll(List<String> items, UUID userId, RateLimiter.Bucket rateLimit, OutputStream out)
+            throws IOException {
+        long startedAt = System.nanoTime();
+        Semaphore permits = new Semaphore(concurrency);
+        int failed = 0;
+
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("extract-batch-", 0).factory())) {
+            CompletionService<ExtractBatchItemDto> completion = new ExecutorCompletionService<>(executor);
+            for (int i = 0; i < items.size(); i++) {
+                int index = i;
+                RateLimiter.Decision decision = index == 0 || rateLimit == null
+                        ? null : rateLimiter.tryAcquire(rateLimit.policy(), rateLimit.key());
+                if (decision != null && !decision.allowed()) {
+                    String error = "Rate limit reached. Please try again in " + decision.retryAfterSeconds() + " seconds.";
+                    completion.submit(() -> new ExtractBatchItemDto(index, "FAILED", null, error, 0));
+                } else {
+                    completion.submit(() -> extractOne(index, items.get(index), permits));
+                }
+            }
+
+            try {
+                for (int done = 0; done < items.size(); done++) {
+                    ExtractBatchItemDto item = completion.take().get();
+                    if (item.result() == null) {
+                        failed++;
+                    }
+                    out.write(objectMapper.writeValueAsBytes(item));
+                    out.write('\n');
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // Client went away: stop waiting extractions instead of finishing work nobody reads
+                logger.warn("[EXTRACT_BATCH] Client disconnected - Cancelling remaining items: {}", e.getMessage());
+                executor.shutdownNow();
+                throw e;
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new IOException("Batch extraction interrupted", e);
+            } catch (ExecutionException e) {
+                // extractOne catches everything, so this only happens on a programming error
+                executor.shutdownNow();
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        logHistoryService.record("Used AI json extraction (batch of " + items.size() + ")", userId);
+        logger.info("[EXTRACT_BATCH] Extracted {} offers ({} failed) in {} ms",
+                items.size(), failed, (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    private ExtractBatchItemDto extractOne(int index, String prompt, Semaphore permits) {
+        long startedAt = System.nanoTime();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ExtractBatchItemDto(index, "FAILED", null, "Cancelled", 0);
+        }
+        try {
+            CouponRequestDto result = extractionJobService.extractWithPermit(prompt, () -> { });
+            return new ExtractBatchItemDto(index, "OK", result, null, elapsedMillis(startedAt));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ExtractBatchItemDto(index, "FAILED", null, "Cancelled", elapsedMillis(startedAt));
+        } catch (RuntimeException e) {
+            logger.warn("[EXTRACT_BATCH] Item {} failed: {}", index, e.getMessage());
+            String error = e.getMessage() != null ? e.getMessage() : "Unable to extract coupon details";
+            return new ExtractBatchItemDto(index, "FAILED", null, error, elapsedMillis(startedAt));
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static long elapsedMillis(long startedAt) {
+        return (System.nanoTime() - startedAt) / 1_000_000;
+    }
+
+    private static List<String> nonBlank(String[] parts) {
+        List<String> result = new ArrayList<>();
+        for (String part : parts) {
+            if (!part.isBlank()) {
+                result.add(part.trim());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,342 @@
+package com.coupon.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Content-addressed cache of extraction results: the key is the SHA-256 of the model,
+ * the instructions and the normalized prompt, so the same promo text pasted by different
+ * users is sent upstream once.
+ * <p>
+ * The cached value is the model's JSON, not the mapped DTO, because the mapper fills
+ * request-time defaults (validFrom = today) that must not be frozen into the cache.
+ * Entries live in a bounded in-memory LRU and, when {@code extract.cache.dir} is set, as
+ * one file per key on disk so they survive restarts. Concurrent misses for the same key
+ * share one upstream call.
+ */
+@Component
+public class ExtractionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExtractionCache.class);
+
+    private static final String FILE_SUFFIX = ".json";
+
+    record Entry(String json, long upstreamMillis, Instant createdAt) {
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final int maxEntries;
+    private final Duration ttl;
+    // Null when disk persistence is off or the directory could not be created
+    private Path directory;
+    private final int maxDiskEntries;
+
+    // Access-ordered so the eldest entry is the least recently used one. Guarded by "this".
+    private final LinkedHashMap<String, Entry> entries;
+
+    private final Map<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder sharedLoads = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder savedUpstreamMillis = new LongAdder();
+    private final LongAdder upstreamMillis = new LongAdder();
+    private final LongAdder diskErrors = new LongAdder();
+
+    public ExtractionCache(
+            @Value("${extract.cache.max-entries:5000}") int maxEntries,
+            @Value("${extract.cache.ttl-hours:168}") long ttlHours,
+            @Value("${extract.cache.dir:}") String directory,
+            @Value("${extract.cache.max-disk-entries:50000}") int maxDiskEntries) {
+        this.maxEntries = maxEntries;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.directory = directory.isBlank() ? null : Path.of(directory);
+        this.maxDiskEntries = maxDiskEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > ExtractionCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @PostConstruct
+    public void init() {
+        if (directory == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            logger.info("[EXTRACT_CACHE] Persisting extractions in {}", directory.toAbsolutePath());
+        } catch (IOException e) {
+            logger.error("[EXTRACT_CACHE] Cannot create cache directory {} - Disk cache disabled: {}", directory, e.getMessage());
+            diskErrors.increment();
+            directory = null;
+        }
+    }
+
+    /**
+     * Cache key for a prompt. Whitespace and Unicode form are normalized; case is kept because
+     * coupon codes are case-sensitive.
+     */
+    public static String key(String namespace, String prompt) {
+        String normalized = Normalizer.normalize(prompt, Normalizer.Form.NFC)
+                .replaceAll("[ \\t\\x0B\\f\\r]+", " ")
+                .replaceAll(" ?\\n ?", "\n")
+                .replaceAll("\\n{2,}", "\n")
+                .trim();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(namespace.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Cached JSON for the key, or the loader's result (which is then cached). A loader that
+     * throws caches nothing, so a failed or unparseable upstream response is retried next time.
+     */
+    public String getOrLoad(String key, Supplier<String> loader) {
+        if (maxEntries <= 0) {
+            return loader.get();
+        }
+
+        Entry entry = getFresh(key);
+        if (entry != null) {
+            memoryHits.increment();
+            savedUpstreamMillis.add(entry.upstreamMillis());
+            return entry.json();
+        }
+
+        entry = readFromDisk(key);
+        if (entry != null) {
+            diskHits.increment();
+            savedUpstreamMillis.add(entry.upstreamMillis());
+            put(key, entry);
+            return entry.json();
+        }
+
+        CompletableFuture<Entry> mine = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            sharedLoads.increment();
+            try {
+                Entry shared = existing.join();
+                savedUpstreamMillis.add(shared.upstreamMillis());
+                return shared.json();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+            }
+        }
+
+        misses.increment();
+        try {
+            long startedAt = System.nanoTime();
+            String json = loader.get();
+            long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+            upstreamMillis.add(elapsedMillis);
+
+            Entry loaded = new Entry(json, elapsedMillis, Instant.now());
+            put(key, loaded);
+            writeToDisk(key, loaded);
+            mine.complete(loaded);
+            return json;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        if (directory != null) {
+            for (Path file : listFiles()) {
+                deleteQuietly(file);
+            }
+        }
+        logger.info("[EXTRACT_CACHE] Cleared");
+    }
+
+    public Map<String, Object> getStats() {
+        long hits = memoryHits.sum() + diskHits.sum() + sharedLoads.sum();
+        long lookups = hits + misses.sum();
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (this) {
+            stats.put("size", entries.size());
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlHours", ttl.toHours());
+        stats.put("memoryHits", memoryHits.sum());
+        stats.put("diskHits", diskHits.sum());
+        stats.put("sharedLoads", sharedLoads.sum());
+        stats.put("misses", misses.sum());
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hits / lookups);
+        stats.put("evictions", evictions.sum());
+        stats.put("savedUpstreamMillis", savedUpstreamMillis.sum());
+        stats.put("avgUpstreamMillis", misses.sum() == 0 ? 0 : upstreamMillis.sum() / misses.sum());
+        stats.put("diskEnabled", directory != null);
+        stats.put("diskErrors", diskErrors.sum());
+        return stats;
+    }
+
+    /**
+     * Keeps the disk cache within max-disk-entries and drops expired files, least recently used first
+     * (hits touch the file's modified time).
+     */
+    @Scheduled(fixedDelayString = "${extract.cache.prune-interval-ms:3600000}", initialDelayString = "${extract.cache.prune-interval-ms:3600000}")
+    public void pruneDisk() {
+        if (directory == null) {
+            return;
+        }
+        List<Path> files = listFiles();
+        Instant expiredBefore = Instant.now().minus(ttl);
+        List<Path> live = new ArrayList<>();
+        int removed = 0;
+        for (Path file : files) {
+            if (lastModified(file).isBefore(expiredBefore)) {
+                deleteQuietly(file);
+                removed++;
+            } else {
+                live.add(file);
+            }
+        }
+        if (live.size() > maxDiskEntries) {
+            live.sort(Comparator.comparing(ExtractionCache::lastModified));
+            for (Path file : live.subList(0, live.size() - maxDiskEntries)) {
+                deleteQuietly(file);
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            logger.info("[EXTRACT_CACHE] Pruned {} disk entries", removed);
+        }
+    }
+
+    private synchronized Entry getFresh(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && isExpired(entry)) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized void put(String key, Entry entry) {
+        entries.put(key, entry);
+    }
+
+    private boolean isExpired(Entry entry) {
+        return entry.createdAt().plus(ttl).isBefore(Instant.now());
+    }
+
+    private Entry readFromDisk(String key) {
+        if (directory == null) {
+            return null;
+        }
+        Path file = directory.resolve(key + FILE_SUFFIX);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            Entry entry = objectMapper.readValue(file.toFile(), Entry.class);
+            if (isExpired(entry)) {
+                deleteQuietly(file);
+                return null;
+            }
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return entry;
+        } catch (IOException e) {
+            logger.warn("[EXTRACT_CACHE] Unreadable cache file {} - Removing: {}", file.getFileName(), e.getMessage());
+            diskErrors.increment();
+            deleteQuietly(file);
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, Entry entry) {
+        if (directory == null) {
+            return;
+        }
+        try {
+            // Write then rename, so a crash never leaves a half-written entry behind
+            Path tmp = Files.createTempFile(directory, key, ".tmp");
+            objectMapper.writeValue(tmp.toFile(), entry);
+            Files.move(tmp, directory.resolve(key + FILE_SUFFIX),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("[EXTRACT_CACHE] Failed to persist entry {}: {}", key, e.getMessage());
+            diskErrors.increment();
+        }
+    }
+
+    private List<Path> listFiles() {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+            stream.forEach(files::add);
+        } catch (IOException e) {
+            logger.warn("[EXTRACT_CACHE] Cannot list cache directory: {}", e.getMessage());
+            diskErrors.increment();
+        }
+        return files;
+    }
+
+    private static Instant lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant();
+        } catch (IOException e) {
+            return Instant.EPOCH;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.debug("[EXTRACT_CACHE] Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+}
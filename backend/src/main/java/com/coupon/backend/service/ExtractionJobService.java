@@ -0,0 +1,248 @@
+package com.coupon.backend.service;
+
+import com.coupon.backend.dto.CouponRequestDto;
+import com.coupon.backend.dto.ExtractionJobDto;
+import com.coupon.backend.exception.TooManyRequestsException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs extractions in the background so a slow model call never holds a servlet thread.
+ * Each job gets a virtual thread; a semaphore caps how many call the extractor at once (shared
+ * with batch extraction through {@link #extractWithPermit}) and a pending limit turns overload
+ * into 429 at submit time. Finished jobs are kept for
+ * {@code extract.jobs.ttl-minutes} so clients can poll or subscribe late.
+ */
+@Service
+public class ExtractionJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExtractionJobService.class);
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+
+    private static final class Job {
+        private final UUID id;
+        private final UUID userId;
+        private final Instant createdAt = Instant.now();
+        private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+        private volatile Status status = Status.PENDING;
+        private volatile CouponRequestDto result;
+        private volatile String error;
+        private volatile Instant finishedAt;
+
+        private Job(UUID id, UUID userId) {
+            this.id = id;
+            this.userId = userId;
+        }
+
+        private boolean isFinished() {
+            return status == Status.SUCCEEDED || status == Status.FAILED;
+        }
+
+        private ExtractionJobDto toDto() {
+            return new ExtractionJobDto(id, status.name(), result, error, createdAt, finishedAt);
+        }
+    }
+
+    @Autowired
+    private JsonExtractorService jsonExtractorService;
+
+    @Autowired
+    private LogHistoryService logHistoryService;
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("extract-job-", 0).factory());
+
+    private final Map<UUID, Job> jobs = new ConcurrentHashMap<>();
+    private final Semaphore concurrency;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final int maxConcurrent;
+    private final int maxPending;
+    private final Duration ttl;
+    private final long sseTimeoutMillis;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public ExtractionJobService(
+            @Value("${extract.jobs.max-concurrent:16}") int maxConcurrent,
+            @Value("${extract.jobs.max-pending:500}") int maxPending,
+            @Value("${extract.jobs.ttl-minutes:30}") long ttlMinutes,
+            @Value("${extract.jobs.sse-timeout-ms:120000}") long sseTimeoutMillis) {
+        this.maxConcurrent = maxConcurrent;
+        this.concurrency = new Semaphore(maxConcurrent, true);
+        this.maxPending = maxPending;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.sseTimeoutMillis = sseTimeoutMillis;
+    }
+
+    public ExtractionJobDto submit(String prompt, UUID userId) {
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            rejected.increment();
+            logger.warn("[EXTRACT_JOB] Rejecting job - {} jobs already pending", maxPending);
+            throw new TooManyRequestsException("Too many extractions in progress. Please try again shortly.", 5);
+        }
+
+        Job job = new Job(UUID.randomUUID(), userId);
+        jobs.put(job.id, job);
+        submitted.increment();
+        logger.debug("[EXTRACT_JOB] Submitted job {} for user {}", job.id, userId);
+
+        executor.execute(() -> run(job, prompt));
+        return job.toDto();
+    }
+
+    /**
+     * The job, if it exists and belongs to the user.
+     */
+    public ExtractionJobDto getJob(UUID jobId, UUID userId) {
+        return findOwned(jobId, userId).toDto();
+    }
+
+    /**
+     * SSE stream with one "status" event now and a final "result" event when the job finishes.
+     */
+    public SseEmitter subscribe(UUID jobId, UUID userId) {
+        Job job = findOwned(jobId, userId);
+        SseEmitter emitter = new SseEmitter(sseTimeoutMillis);
+        emitter.onCompletion(() -> job.subscribers.remove(emitter));
+        emitter.onTimeout(() -> job.subscribers.remove(emitter));
+        emitter.onError(e -> job.subscribers.remove(emitter));
+
+        job.subscribers.add(emitter);
+        send(emitter, "status", job.toDto());
+        // The job may have finished before the emitter was registered; finish() sends to each emitter once
+        if (job.isFinished()) {
+            finish(job, emitter);
+        }
+        return emitter;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("tracked", jobs.size());
+        stats.put("pending", pending.get());
+        stats.put("running", maxConcurrent - concurrency.availablePermits());
+        stats.put("maxConcurrent", maxConcurrent);
+        stats.put("maxPending", maxPending);
+        stats.put("submitted", submitted.sum());
+        stats.put("succeeded", succeeded.sum());
+        stats.put("failed", failed.sum());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${extract.jobs.cleanup-interval-ms:60000}")
+    public void removeExpired() {
+        Instant cutoff = Instant.now().minus(ttl);
+        int before = jobs.size();
+        jobs.values().removeIf(job -> job.isFinished() && job.finishedAt.isBefore(cutoff));
+        int removed = before - jobs.size();
+        if (removed > 0) {
+            logger.debug("[EXTRACT_JOB] Removed {} expired jobs", removed);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            logger.warn("[EXTRACT_JOB] {} jobs still running at shutdown", pending.get());
+        }
+    }
+
+    /**
+     * Calls the extractor once a permit from the shared pool is free, so jobs and batch items
+     * together never have more than {@code extract.jobs.max-concurrent} calls in flight.
+     */
+    public CouponRequestDto extractWithPermit(String prompt, Runnable onStart) throws InterruptedException {
+        concurrency.acquire();
+        try {
+            onStart.run();
+            return jsonExtractorService.extractFromPrompt(prompt);
+        } finally {
+            concurrency.release();
+        }
+    }
+
+    private void run(Job job, String prompt) {
+        try {
+            CouponRequestDto result = extractWithPermit(prompt, () -> job.status = Status.RUNNING);
+            logHistoryService.record("Used AI json extraction", job.userId);
+            complete(job, result, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            complete(job, null, "Extraction was cancelled. Please try again.");
+        } catch (RuntimeException e) {
+            logger.error("[EXTRACT_JOB] Job {} failed: {}", job.id, e.getMessage());
+            complete(job, null, e.getMessage() != null ? e.getMessage() : "Unable to extract coupon details. Please try again.");
+        }
+    }
+
+    private void complete(Job job, CouponRequestDto result, String error) {
+        job.result = result;
+        job.error = error;
+        job.finishedAt = Instant.now();
+        job.status = error == null ? Status.SUCCEEDED : Status.FAILED;
+        (error == null ? succeeded : failed).increment();
+        pending.decrementAndGet();
+
+        for (SseEmitter emitter : job.subscribers) {
+            finish(job, emitter);
+        }
+    }
+
+    private void finish(Job job, SseEmitter emitter) {
+        if (job.subscribers.remove(emitter)) {
+            send(emitter, "result", job.toDto());
+            emitter.complete();
+        }
+    }
+
+    private static void send(SseEmitter emitter, String name, ExtractionJobDto dto) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(dto));
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the completion callbacks drop the emitter
+            emitter.completeWithError(e);
+        }
+    }
+
+    private Job findOwned(UUID jobId, UUID userId) {
+        Job job = jobs.get(jobId);
+        if (job == null || !job.userId.equals(userId)) {
+            throw new RuntimeException("Extraction job not found");
+        }
+        return job;
+    }
+}
@@ -0,0 +1,607 @@
+package com.coupon.backend.service;
+
+import com.coupon.backend.entity.Coupon;
+import com.coupon.backend.enums.DiscountType;
+import com.coupon.backend.event.CouponStatusChangedEvent;
+import com.coupon.backend.repository.CouponRedemptionRepository;
+import com.coupon.backend.repository.CouponRepository;
+import com.coupon.backend.scheduler.ClusterJobScheduler;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Flash-sale mode for hot, limited-quantity coupons.
+ *
+ * Postgres stays the owner of the stock. Each instance leases a slice of it (a flash_sale_lease
+ * row, claimed under the coupon row lock) and admits redemptions from that slice in memory, so
+ * the hot coupon row is not written per redemption. A slice is split over several counters
+ * (stripes) to keep concurrent buyers off a single CAS target; when it runs out the instance
+ * claims the next one, and the sale is sold out once nothing is left to lease. Points and the
+ * coupon_redemption row are still written in the redeeming transaction; sold_quantity is written
+ * behind, in batches.
+ *
+ * Leases expire unless renewed, so the slice of an instance that stops returns to the pool. An
+ * instance stops admitting from its slice before the lease can expire, and unleased stock is
+ * counted from coupon_redemption, so sales a dead instance never flushed are not sold again.
+ */
+@Service
+@DependsOn("schemaInitializer")
+public class FlashSaleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlashSaleService.class);
+
+    private static final long DRAIN_WAIT_MILLIS = 5000;
+
+    // How long an instance that found nothing left to lease waits before asking again
+    private static final long EXHAUSTED_RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * The coupon fields a flash redemption needs, captured when the sale is loaded.
+     */
+    public record CouponSnapshot(
+            UUID id,
+            String title,
+            String platform,
+            String category,
+            DiscountType discountType,
+            LocalDate validTill,
+            int redeemCost
+    ) {
+    }
+
+    /**
+     * One admitted unit. lastUnit is true for the admission that took the last unit this instance
+     * could get.
+     */
+    public record Admission(CouponSnapshot coupon, boolean lastUnit) {
+    }
+
+    private static final class FlashStock {
+        private final CouponSnapshot coupon;
+        private final AtomicInteger[] stripes;
+        private final Set<UUID> redeemedBy = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicBoolean soldOutAnnounced = new AtomicBoolean();
+        private final Object refillLock = new Object();
+        private final Object drained = new Object();
+        private volatile boolean closed;
+
+        // Stripes may only be used until then; set from the moment the lease was last claimed or renewed
+        private volatile long leaseValidUntilNanos = System.nanoTime();
+        // The last claim got less than a full slice: the rest of the stock is sold or leased elsewhere
+        private volatile boolean exhausted;
+        private volatile long nextClaimNanos = System.nanoTime();
+
+        private FlashStock(CouponSnapshot coupon, int stripeCount) {
+            this.coupon = coupon;
+            this.stripes = new AtomicInteger[stripeCount];
+            for (int i = 0; i < stripeCount; i++) {
+                stripes[i] = new AtomicInteger();
+            }
+        }
+
+        /**
+         * Takes one unit, starting at a random stripe and probing the others. Returns the stripe or -1 when empty.
+         */
+        private int take() {
+            int start = ThreadLocalRandom.current().nextInt(stripes.length);
+            for (int i = 0; i < stripes.length; i++) {
+                int index = (start + i) % stripes.length;
+                AtomicInteger stripe = stripes[index];
+                int available;
+                while ((available = stripe.get()) > 0) {
+                    if (stripe.compareAndSet(available, available - 1)) {
+                        return index;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        private void add(int units) {
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i].addAndGet(units / stripes.length + (i < units % stripes.length ? 1 : 0));
+            }
+        }
+
+        private void clear() {
+            for (AtomicInteger stripe : stripes) {
+                stripe.set(0);
+            }
+        }
+
+        private int remaining() {
+            int remaining = 0;
+            for (AtomicInteger stripe : stripes) {
+                remaining += stripe.get();
+            }
+            return remaining;
+        }
+
+        private boolean leaseValid() {
+            return leaseValidUntilNanos - System.nanoTime() > 0;
+        }
+    }
+
+    // Claims of all instances queue on this lock; finds nothing once the sale was disabled, sold out or expired
+    private static final String LOCK_COUPON_SQL =
+            "SELECT total_quantity FROM coupon WHERE id = ? AND is_flash_sale = true AND is_active = true " +
+            "AND (valid_till IS NULL OR valid_till > CURRENT_DATE) FOR UPDATE";
+
+    private static final String UPSERT_LEASE_SQL =
+            "INSERT INTO flash_sale_lease (coupon_id, instance_id, units, expires_at) " +
+            "VALUES (?, ?, ?, now() + ? * interval '1 second') " +
+            "ON CONFLICT (coupon_id, instance_id) DO UPDATE " +
+            "SET units = flash_sale_lease.units + EXCLUDED.units, expires_at = EXCLUDED.expires_at";
+
+    private static final String RENEW_LEASE_SQL =
+            "UPDATE flash_sale_lease SET expires_at = now() + ? * interval '1 second' " +
+            "WHERE coupon_id = ? AND instance_id = ? AND expires_at > now()";
+
+    private static final String ON_SALE_SQL =
+            "SELECT count(*) FROM coupon WHERE id = ? AND is_flash_sale = true AND is_active = true " +
+            "AND (valid_till IS NULL OR valid_till > CURRENT_DATE)";
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private CouponRedemptionRepository redemptionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ClusterJobScheduler clusterJobScheduler;
+
+    @Value("${coupon.flash-sale.stripes:8}")
+    private int stripeCount;
+
+    @Value("${coupon.flash-sale.lease-size:50}")
+    private int leaseSize;
+
+    @Value("${coupon.flash-sale.lease-ttl-seconds:30}")
+    private int leaseTtlSeconds;
+
+    // Claims commit on their own, not with the redemption that ran out of stock
+    private final TransactionTemplate leaseTransaction;
+
+    private final Map<UUID, FlashStock> stocks = new ConcurrentHashMap<>();
+
+    // Committed flash redemptions not yet applied to coupon.sold_quantity
+    private final Map<UUID, AtomicInteger> pendingSold = new ConcurrentHashMap<>();
+
+    public FlashSaleService(PlatformTransactionManager transactionManager) {
+        this.leaseTransaction = new TransactionTemplate(transactionManager);
+        this.leaseTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void loadFlashSales() {
+        int reconciled = couponRepository.reconcileFlashSaleSoldQuantity();
+        if (reconciled > 0) {
+            logger.warn("[FLASH_SALE] Reconciled sold quantity of {} coupons from redemptions", reconciled);
+        }
+        // Leases left by an earlier run under the same instance id hold nothing this run can sell
+        jdbcTemplate.update("DELETE FROM flash_sale_lease WHERE instance_id = ?", instanceId());
+        for (Coupon coupon : couponRepository.findByIsFlashSaleTrue()) {
+            stocks.put(coupon.getId(), load(coupon));
+        }
+        logger.info("[FLASH_SALE] Loaded {} flash sales", stocks.size());
+    }
+
+    /**
+     * Admits one redemption from this instance's lease and ties the unit to the current transaction:
+     * it is released again if the transaction rolls back. Returns null when this instance does not
+     * serve the coupon as a flash sale.
+     */
+    public Admission admit(UUID couponId, UUID userId) {
+        FlashStock stock = stocks.get(couponId);
+        return stock != null ? admit(stock, userId) : null;
+    }
+
+    /**
+     * Admits a redemption of a flash-sale coupon this instance has not served yet, e.g. one enabled
+     * on another instance.
+     */
+    public Admission join(Coupon coupon, UUID userId) {
+        return admit(stocks.computeIfAbsent(coupon.getId(), id -> load(coupon)), userId);
+    }
+
+    private Admission admit(FlashStock stock, UUID userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Flash sale admission requires an active transaction");
+        }
+        if (stock.closed) {
+            throw new RuntimeException("This coupon is temporarily unavailable. Please try again.");
+        }
+        // Expired by date even if the sweep that switches it off has not run or reached this instance yet
+        LocalDate validTill = stock.coupon.validTill();
+        if (validTill != null && !validTill.isAfter(LocalDate.now())) {
+            throw new RuntimeException("This coupon is no longer available");
+        }
+        if (!stock.redeemedBy.add(userId)) {
+            throw new RuntimeException("You have already redeemed this coupon");
+        }
+
+        int stripe;
+        try {
+            stripe = stock.leaseValid() ? stock.take() : -1;
+            if (stripe < 0) {
+                stripe = refill(stock);
+            }
+        } catch (RuntimeException e) {
+            stock.redeemedBy.remove(userId);
+            throw e;
+        }
+        if (stripe < 0) {
+            stock.redeemedBy.remove(userId);
+            throw new RuntimeException("This coupon has been sold out");
+        }
+
+        stock.inFlight.incrementAndGet();
+        boolean lastUnit = stock.exhausted && stock.remaining() == 0 && stock.soldOutAnnounced.compareAndSet(false, true);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    pendingSold.computeIfAbsent(stock.coupon.id(), id -> new AtomicInteger()).incrementAndGet();
+                } else {
+                    stock.stripes[stripe].incrementAndGet();
+                    stock.redeemedBy.remove(userId);
+                    if (lastUnit) {
+                        stock.soldOutAnnounced.set(false);
+                    }
+                }
+                if (stock.inFlight.decrementAndGet() == 0 && stock.closed) {
+                    synchronized (stock.drained) {
+                        stock.drained.notifyAll();
+                    }
+                }
+            }
+        });
+
+        return new Admission(stock.coupon, lastUnit);
+    }
+
+    /**
+     * Takes a unit after the stripes ran dry, claiming the next slice if no other thread did meanwhile.
+     * Returns the stripe or -1 when nothing is left to lease.
+     */
+    private int refill(FlashStock stock) {
+        synchronized (stock.refillLock) {
+            if (stock.leaseValid()) {
+                int stripe = stock.take();
+                if (stripe >= 0 || (stock.exhausted && System.nanoTime() - stock.nextClaimNanos < 0)) {
+                    return stripe;
+                }
+            }
+
+            long startedAt = System.nanoTime();
+            int granted;
+            try {
+                granted = claimLease(stock);
+            } catch (DataAccessException e) {
+                logger.error("[FLASH_SALE] Could not lease stock of coupon {} - Error: {}", stock.coupon.id(), e.getMessage());
+                throw new RuntimeException("This coupon is temporarily unavailable. Please try again.");
+            }
+            if (granted < 0) {
+                // Disabled, sold out or expired elsewhere; the next renewal hands the stock back
+                stock.closed = true;
+                throw new RuntimeException("This coupon is no longer available");
+            }
+
+            stock.leaseValidUntilNanos = startedAt + leaseValidityNanos();
+            // A short slice was the last one to be had for now
+            stock.exhausted = granted < leaseSize;
+            stock.nextClaimNanos = System.nanoTime() + EXHAUSTED_RETRY_NANOS;
+            if (granted > 0) {
+                stock.add(granted);
+                logger.debug("[FLASH_SALE] Leased {} units of coupon {}", granted, stock.coupon.id());
+            }
+            return stock.take();
+        }
+    }
+
+    /**
+     * Claims up to lease-size unleased units for this instance in a transaction of its own. Returns the
+     * units granted, 0 when every unsold unit is leased, or -1 when the coupon is no longer on flash sale.
+     */
+    private int claimLease(FlashStock stock) {
+        UUID couponId = stock.coupon.id();
+        Integer granted = leaseTransaction.execute(status -> {
+            List<Integer> total = jdbcTemplate.queryForList(LOCK_COUPON_SQL, Integer.class, couponId);
+            if (total.isEmpty()) {
+                return -1;
+            }
+
+            // Slices of instances that stopped renewing go back to the pool; what they sold is in coupon_redemption
+            if (jdbcTemplate.update("DELETE FROM flash_sale_lease WHERE coupon_id = ? AND expires_at <= now()", couponId) > 0) {
+                couponRepository.syncSoldQuantity(couponId, Instant.now());
+            }
+            if (jdbcTemplate.queryForList("SELECT units FROM flash_sale_lease WHERE coupon_id = ? AND instance_id = ?",
+                    Integer.class, couponId, instanceId()).isEmpty()) {
+                // Whatever is left in the stripes belonged to a lease that is gone
+                stock.clear();
+            }
+
+            // Unflushed sales count both as redeemed and as leased, which only understates what is left
+            long redeemed = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM coupon_redemption WHERE coupon_id = ?", Long.class, couponId);
+            long leased = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(SUM(units), 0) FROM flash_sale_lease WHERE coupon_id = ?", Long.class, couponId);
+            int units = (int) Math.max(0, Math.min(leaseSize, total.get(0) - redeemed - leased));
+
+            jdbcTemplate.update(UPSERT_LEASE_SQL, couponId, instanceId(), units, leaseTtlSeconds);
+            return units;
+        });
+        return granted != null ? granted : -1;
+    }
+
+    /**
+     * Switches a coupon to flash mode. The row lock waits for in-flight regular redemptions,
+     * so no regular claim is left uncounted when instances start leasing.
+     */
+    @Transactional
+    public Map<String, Object> enable(UUID couponId) {
+        Coupon coupon = couponRepository.findByIdForUpdate(couponId)
+                .orElseThrow(() -> new RuntimeException("Coupon not found"));
+
+        FlashStock existing = stocks.get(couponId);
+        if (existing != null && !existing.closed) {
+            return status(existing);
+        }
+
+        coupon.setIsFlashSale(true);
+        coupon.setUpdatedAt(Instant.now());
+        FlashStock stock = load(coupon);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                stocks.put(couponId, stock);
+            }
+        });
+
+        logger.info("[FLASH_SALE] Enabled for coupon {} with {} units", couponId,
+                Math.max(0, coupon.getTotalQuantity() - coupon.getSoldQuantity()));
+        return status(stock);
+    }
+
+    /**
+     * Switches a coupon back to regular redemption. Regular claims count units still leased by
+     * any instance as taken, so they can start at once; this instance then stops admitting, waits
+     * for in-flight flash redemptions and hands its lease back. Other instances follow on their
+     * next renewal.
+     */
+    public void disable(UUID couponId) {
+        if (couponRepository.setFlashSale(couponId, false, Instant.now()) == 0) {
+            throw new RuntimeException("Coupon not found");
+        }
+        FlashStock stock = stocks.get(couponId);
+        if (stock != null) {
+            release(stock);
+        }
+        logger.info("[FLASH_SALE] Disabled for coupon {}", couponId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCouponStatusChanged(CouponStatusChangedEvent event) {
+        // An expired coupon leaves flash mode so its remaining stock is written back and admissions stop.
+        // Sell-outs come through the feed too; the sale winds those down itself.
+        boolean expired = event.validTill() != null && !event.validTill().isAfter(LocalDate.now());
+        if (event.active() || !expired || !stocks.containsKey(event.couponId())) {
+            return;
+        }
+        try {
+            disable(event.couponId());
+        } catch (RuntimeException e) {
+            logger.error("[FLASH_SALE] Could not disable expired coupon {} - Error: {}", event.couponId(), e.getMessage());
+        }
+    }
+
+    public List<Map<String, Object>> getStatus() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (FlashStock stock : stocks.values()) {
+            result.add(status(stock));
+        }
+        return result;
+    }
+
+    /**
+     * Extends this instance's leases and lets go of sales that were disabled, sold out or expired
+     * elsewhere. Also returns slices of instances that stopped renewing to the pool.
+     */
+    @Scheduled(fixedDelayString = "${coupon.flash-sale.renew-interval-ms:5000}")
+    public void renewLeases() {
+        for (FlashStock stock : stocks.values()) {
+            UUID couponId = stock.coupon.id();
+            try {
+                if (jdbcTemplate.queryForObject(ON_SALE_SQL, Long.class, couponId) == 0) {
+                    release(stock);
+                    logger.info("[FLASH_SALE] Coupon {} is no longer on flash sale - Lease released", couponId);
+                    continue;
+                }
+                long startedAt = System.nanoTime();
+                if (jdbcTemplate.update(RENEW_LEASE_SQL, leaseTtlSeconds, couponId, instanceId()) == 1) {
+                    stock.leaseValidUntilNanos = startedAt + leaseValidityNanos();
+                }
+            } catch (DataAccessException e) {
+                // Admissions stop by themselves once the lease runs out locally
+                logger.error("[FLASH_SALE] Could not renew lease of coupon {} - Error: {}", couponId, e.getMessage());
+            }
+        }
+
+        try {
+            reapExpiredLeases();
+        } catch (DataAccessException e) {
+            logger.error("[FLASH_SALE] Could not reap expired leases - Error: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes committed flash redemptions to coupon.sold_quantity, one UPDATE per coupon.
+     */
+    @Scheduled(fixedDelayString = "${coupon.flash-sale.flush-interval-ms:500}")
+    public void flush() {
+        for (UUID couponId : pendingSold.keySet()) {
+            flush(couponId);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        for (FlashStock stock : stocks.values()) {
+            try {
+                release(stock);
+            } catch (RuntimeException e) {
+                logger.error("[FLASH_SALE] Could not release lease of coupon {} - Error: {}", stock.coupon.id(), e.getMessage());
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Stops admitting, waits for in-flight redemptions, writes them and hands the unsold rest of the lease back.
+     */
+    private void release(FlashStock stock) {
+        UUID couponId = stock.coupon.id();
+        stock.closed = true;
+        awaitDrained(stock);
+        flush(couponId);
+        jdbcTemplate.update("DELETE FROM flash_sale_lease WHERE coupon_id = ? AND instance_id = ?", couponId, instanceId());
+        stocks.remove(couponId, stock);
+    }
+
+    private void awaitDrained(FlashStock stock) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DRAIN_WAIT_MILLIS);
+        synchronized (stock.drained) {
+            long left;
+            while (stock.inFlight.get() > 0 && (left = deadline - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(stock.drained, left);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        if (stock.inFlight.get() > 0) {
+            // Written by a later flush once they commit; unleased stock is counted from redemptions meanwhile
+            logger.warn("[FLASH_SALE] {} redemptions of coupon {} still in flight", stock.inFlight.get(), stock.coupon.id());
+        }
+    }
+
+    private void flush(UUID couponId) {
+        AtomicInteger pending = pendingSold.get(couponId);
+        if (pending == null) {
+            return;
+        }
+        int count = pending.getAndSet(0);
+        if (count == 0) {
+            return;
+        }
+        try {
+            // Moves the units from the lease to sold_quantity in one step
+            transactionTemplate.executeWithoutResult(status -> {
+                couponRepository.syncSoldQuantity(couponId, Instant.now());
+                jdbcTemplate.update("UPDATE flash_sale_lease SET units = GREATEST(units - ?, 0) WHERE coupon_id = ? AND instance_id = ?",
+                        count, couponId, instanceId());
+            });
+            logger.debug("[FLASH_SALE] Flushed {} redemptions for coupon {}", count, couponId);
+        } catch (RuntimeException e) {
+            pending.addAndGet(count);
+            logger.error("[FLASH_SALE] Flush failed for coupon {}: {}", couponId, e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes leases nobody renewed and brings sold_quantity up to date in the same transaction, so
+     * regular claims never see the dead instance's unflushed sales as neither sold nor leased.
+     */
+    private void reapExpiredLeases() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<UUID> couponIds = jdbcTemplate.queryForList(
+                    "DELETE FROM flash_sale_lease WHERE expires_at <= now() RETURNING coupon_id", UUID.class);
+            for (UUID couponId : Set.copyOf(couponIds)) {
+                couponRepository.syncSoldQuantity(couponId, Instant.now());
+                logger.warn("[FLASH_SALE] Reclaimed an expired lease of coupon {}", couponId);
+            }
+        });
+    }
+
+    private FlashStock load(Coupon coupon) {
+        CouponSnapshot snapshot = new CouponSnapshot(
+                coupon.getId(),
+                coupon.getTitle(),
+                coupon.getPlatform(),
+                coupon.getCategory(),
+                coupon.getDiscountType(),
+                coupon.getValidTill(),
+                coupon.getRedeemCost() != null ? coupon.getRedeemCost() : 5
+        );
+
+        FlashStock stock = new FlashStock(snapshot, Math.max(1, stripeCount));
+        stock.redeemedBy.addAll(redemptionRepository.findUserIdsByCouponId(coupon.getId()));
+        return stock;
+    }
+
+    // A fifth of the TTL is left as margin, so this instance stops before the database expires the lease
+    private long leaseValidityNanos() {
+        return TimeUnit.SECONDS.toNanos(leaseTtlSeconds) * 4 / 5;
+    }
+
+    private String instanceId() {
+        return clusterJobScheduler.getInstanceId();
+    }
+
+    private Map<String, Object> status(FlashStock stock) {
+        AtomicInteger pending = pendingSold.get(stock.coupon.id());
+        Map<String, Object> status = new HashMap<>();
+        status.put("couponId", stock.coupon.id());
+        status.put("title", stock.coupon.title());
+        status.put("instanceId", instanceId());
+        status.put("leasedRemaining", stock.remaining());
+        status.put("leaseValid", stock.leaseValid());
+        status.put("exhausted", stock.exhausted);
+        status.put("redeemedUsers", stock.redeemedBy.size());
+        status.put("inFlight", stock.inFlight.get());
+        status.put("pendingFlush", pending != null ? pending.get() : 0);
+        status.put("closed", stock.closed);
+        return status;
+    }
+}
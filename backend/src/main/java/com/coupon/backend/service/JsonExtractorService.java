@@ -12,7 +12,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 public class JsonExtractorService {
@@ -67,18 +69,85 @@ public class JsonExtractorService {
     private final Client client;
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final ExtractResultMapper extractResultMapper;
+    private final ExtractionCache extractionCache;
+    private final RuleBasedCouponExtractor ruleBasedExtractor;
+    private final double localMinConfidence;
+    private final double fallbackMinConfidence;
+
+    private final LongAdder localExtractions = new LongAdder();
+    private final LongAdder modelExtractions = new LongAdder();
+    private final LongAdder localFallbacks = new LongAdder();
 
     public JsonExtractorService(
             @Value("${gemini.api_key}") String apiKey,
-            @Autowired ExtractResultMapper extractResultMapper) {
+            @Value("${extract.local.min-confidence:0.8}") double localMinConfidence,
+            @Value("${extract.local.fallback-min-confidence:0.5}") double fallbackMinConfidence,
+            @Autowired ExtractResultMapper extractResultMapper,
+            @Autowired ExtractionCache extractionCache,
+            @Autowired RuleBasedCouponExtractor ruleBasedExtractor) {
         this.client = Client.builder().apiKey(apiKey).build();
         this.extractResultMapper = extractResultMapper;
+        this.extractionCache = extractionCache;
+        this.ruleBasedExtractor = ruleBasedExtractor;
+        this.localMinConfidence = localMinConfidence;
+        this.fallbackMinConfidence = fallbackMinConfidence;
     }
 
     public CouponRequestDto extractFromPrompt(String prompt) {
         logger.debug("[EXTRACT] Starting extraction from prompt - Length: {} chars", prompt.length());
         logger.debug("[EXTRACT] Prompt preview: {}...", prompt.substring(0, Math.min(100, prompt.length())));
+
+        // Structured texts are handled locally; the model only sees what the rules are unsure about
+        RuleBasedCouponExtractor.Result local = ruleBasedExtractor.extract(prompt);
+        if (local.confidence() >= localMinConfidence) {
+            logger.debug("[EXTRACT] Local extraction accepted - Confidence: {}", local.confidence());
+            localExtractions.increment();
+            return extractResultMapper.toCouponRequestDto(local.fields());
+        }
+
+        // Model and instructions are part of the key, so changing either never serves stale results
+        String cacheKey = ExtractionCache.key(MODEL + INSTRUCTIONS, prompt);
+        String json;
+        try {
+            json = extractionCache.getOrLoad(cacheKey, () -> callModel(prompt));
+        } catch (RuntimeException e) {
+            if (local.confidence() < fallbackMinConfidence) {
+                throw e;
+            }
+            logger.warn("[EXTRACT] Model extraction failed ({}) - Using local result with confidence {}",
+                    e.getMessage(), local.confidence());
+            localFallbacks.increment();
+            return extractResultMapper.toCouponRequestDto(local.fields());
+        }
+        modelExtractions.increment();
         
+        try {
+            Map<String, Object> map = objectMapper.readValue(json, new TypeReference<>() {});
+            
+            CouponRequestDto result = extractResultMapper.toCouponRequestDto(map);
+            
+            return result;
+        } catch (Exception e) {
+            logger.error("[EXTRACT] Failed to parse JSON - Error: {}", e.getMessage());
+            logger.debug("[EXTRACT] Raw JSON: {}", json);
+            throw new RuntimeException("Failed to parse extracted JSON: " + e.getMessage(), e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("localExtractions", localExtractions.sum());
+        stats.put("modelExtractions", modelExtractions.sum());
+        stats.put("localFallbacks", localFallbacks.sum());
+        stats.put("localMinConfidence", localMinConfidence);
+        stats.put("fallbackMinConfidence", fallbackMinConfidence);
+        return stats;
+    }
+
+    /**
+     * One upstream call. Only JSON that parses is returned, so a malformed answer is never cached.
+     */
+    private String callModel(String prompt) {
         String finalPrompt = INSTRUCTIONS + "\n\nText:\n" + prompt;
         
         logger.debug("[EXTRACT] Calling Gemini API - Model: {}", MODEL);
@@ -88,22 +157,19 @@ public class JsonExtractorService {
                 null);
         
         String raw = response.text();
-        logger.debug("[EXTRACT] Received response - Length: {} chars", raw.length());
+        logger.debug("[EXTRACT] Received response - Length: {} chars", raw != null ? raw.length() : 0);
         
         String json = stripMarkdownJson(raw);
         logger.debug("[EXTRACT] Stripped JSON - Length: {} chars", json.length());
-        
+
         try {
-            Map<String, Object> map = objectMapper.readValue(json, new TypeReference<>() {});
-            
-            CouponRequestDto result = extractResultMapper.toCouponRequestDto(map);
-            
-            return result;
+            objectMapper.readTree(json);
         } catch (Exception e) {
             logger.error("[EXTRACT] Failed to parse JSON - Error: {}", e.getMessage());
             logger.debug("[EXTRACT] Raw JSON: {}", json);
             throw new RuntimeException("Failed to parse extracted JSON: " + e.getMessage(), e);
         }
+        return json;
     }
 
     private String stripMarkdownJson(String text) {
@@ -0,0 +1,136 @@
+package com.coupon.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Streams activity logs to an output stream row by row. Rows are read through a server-side
+ * cursor (Postgres only uses one with a fetch size inside a transaction), so memory use does
+ * not depend on how many rows match.
+ */
+@Service
+public class LogExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogExportService.class);
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    private record ExportRow(UUID id, Instant createdAt, UUID userId, String message) {
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public LogExportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                            @Value("${app.logs.export.fetch-size:1000}") int fetchSize) {
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Writes matching logs, oldest first. All filters are optional; the range is [from, to).
+     * Returns the number of rows written.
+     */
+    public long export(OutputStream out, Format format, Instant from, Instant to, UUID userId) throws IOException {
+        StringBuilder sql = new StringBuilder("SELECT id, created_at, user_id, message FROM loghistory WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (from != null) {
+            sql.append(" AND created_at >= ?");
+            params.add(Timestamp.from(from));
+        }
+        if (to != null) {
+            sql.append(" AND created_at < ?");
+            params.add(Timestamp.from(to));
+        }
+        if (userId != null) {
+            sql.append(" AND user_id = ?");
+            params.add(userId);
+        }
+        sql.append(" ORDER BY created_at");
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write("id,createdAt,userId,message\n");
+        }
+
+        long[] rows = {0};
+        try {
+            readOnlyTransaction.executeWithoutResult(status ->
+                    cursorJdbcTemplate.query(sql.toString(), rs -> {
+                        ExportRow row = new ExportRow(
+                                rs.getObject("id", UUID.class),
+                                rs.getTimestamp("created_at").toInstant(),
+                                rs.getObject("user_id", UUID.class),
+                                rs.getString("message"));
+                        try {
+                            writeRow(writer, format, row);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        rows[0]++;
+                    }, params.toArray()));
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the transaction has been rolled back and the cursor closed
+            logger.warn("[LOG_EXPORT] Export aborted after {} rows: {}", rows[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+
+        writer.flush();
+        logger.info("[LOG_EXPORT] Exported {} logs as {}", rows[0], format);
+        return rows[0];
+    }
+
+    private void writeRow(Writer writer, Format format, ExportRow row) throws IOException {
+        if (format == Format.NDJSON) {
+            writer.write(objectMapper.writeValueAsString(row));
+        } else {
+            writer.write(row.id().toString());
+            writer.write(',');
+            writer.write(row.createdAt().toString());
+            writer.write(',');
+            writer.write(row.userId() != null ? row.userId().toString() : "");
+            writer.write(',');
+            writer.write(csvEscape(row.message()));
+        }
+        writer.write('\n');
+    }
+
+    private static String csvEscape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -4,9 +4,14 @@ import com.coupon.backend.entity.LogHistory;
 import com.coupon.backend.repository.LogHistoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,6 +21,26 @@ public class LogHistoryService {
     @Autowired
     private LogHistoryRepository logHistoryRepository;
 
+    @Autowired
+    private LogHistoryWriter logHistoryWriter;
+
+    /**
+     * Records an activity log without writing it on the caller's thread. Inside a transaction
+     * the log is queued only once it commits, so rolled-back work leaves no log behind.
+     */
+    public void record(String message, UUID userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    logHistoryWriter.enqueue(message, userId);
+                }
+            });
+        } else {
+            logHistoryWriter.enqueue(message, userId);
+        }
+    }
+
     public LogHistory createLog(String message, UUID userId) {
         LogHistory log = new LogHistory();
         log.setMessage(message);
@@ -23,8 +48,13 @@ public class LogHistoryService {
         return logHistoryRepository.save(log);
     }
 
-    public List<LogHistory> getAllLogs() {
-        return logHistoryRepository.findAll(Sort.by(Sort.Direction.DESC, "createdAt"));
+    /**
+     * Newest logs from the last {@code days} days, so only the recent partitions are read.
+     */
+    public List<LogHistory> getRecentLogs(int days, int limit) {
+        Instant since = Instant.now().minus(days, ChronoUnit.DAYS);
+        return logHistoryRepository.findByCreatedAtGreaterThanEqual(
+                since, PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "createdAt")));
     }
 
     public Page<LogHistory> getAllLogs(Pageable pageable) {
@@ -43,9 +73,8 @@ public class LogHistoryService {
         logHistoryRepository.deleteById(logId);
     }
 
-    public void deleteLogsByUserId(UUID userId) {
-        List<LogHistory> userLogs = logHistoryRepository.findByUserId(userId);
-        logHistoryRepository.deleteAll(userLogs);
+    public int deleteLogsByUserId(UUID userId) {
+        return logHistoryRepository.deleteAllByUserId(userId);
     }
 
     public long countLogs() {
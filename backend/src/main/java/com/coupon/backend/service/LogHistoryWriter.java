@@ -0,0 +1,192 @@
+package com.coupon.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes activity logs off the request path. Entries go into a bounded queue that a single
+ * background thread drains into JDBC batch inserts, flushing when a batch is full or the
+ * flush interval has passed. When the queue is full the entry is either dropped (DROP) or
+ * written by the calling thread (CALLER_RUNS). Whatever is queued is written on shutdown.
+ */
+@Component
+public class LogHistoryWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogHistoryWriter.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO loghistory (id, message, created_at, user_id) VALUES (?, ?, ?, ?)";
+
+    private static final long SHUTDOWN_WAIT_MILLIS = 5000;
+
+    public enum OverflowPolicy {
+        DROP,
+        CALLER_RUNS
+    }
+
+    private record PendingLog(UUID id, String message, Instant createdAt, UUID userId) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final BlockingQueue<PendingLog> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final OverflowPolicy overflowPolicy;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    private volatile boolean running = true;
+    private Thread writerThread;
+
+    public LogHistoryWriter(
+            @Value("${app.logs.async.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.logs.async.batch-size:200}") int batchSize,
+            @Value("${app.logs.async.flush-interval-ms:1000}") long flushIntervalMillis,
+            @Value("${app.logs.async.overflow-policy:DROP}") OverflowPolicy overflowPolicy) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    @PostConstruct
+    public void start() {
+        writerThread = new Thread(this::run, "log-history-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    public void enqueue(String message, UUID userId) {
+        PendingLog log = new PendingLog(UUID.randomUUID(), message, Instant.now(), userId);
+        if (running && queue.offer(log)) {
+            enqueued.increment();
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.CALLER_RUNS || !running) {
+            write(List.of(log));
+        } else {
+            dropped.increment();
+            logger.warn("[LOG_WRITER] Queue full, dropped log for user {}", userId);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // No interrupt: an interrupted thread cannot borrow a pooled connection for the last batch.
+        // The writer notices within one flush interval.
+        running = false;
+        try {
+            writerThread.join(SHUTDOWN_WAIT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Anything the writer thread did not get to
+        List<PendingLog> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            write(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+        }
+        logger.info("[LOG_WRITER] Stopped - written: {}, dropped: {}, failed: {}", written.sum(), dropped.sum(), failed.sum());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("queued", queue.size());
+        stats.put("capacity", queue.size() + queue.remainingCapacity());
+        stats.put("batchSize", batchSize);
+        stats.put("flushIntervalMs", flushIntervalMillis);
+        stats.put("overflowPolicy", overflowPolicy);
+        stats.put("enqueued", enqueued.sum());
+        stats.put("written", written.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("failed", failed.sum());
+        stats.put("batches", batches.sum());
+        return stats;
+    }
+
+    private void run() {
+        List<PendingLog> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingLog first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Fill the batch until it is full or the flush interval is up
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long waitNanos = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || waitNanos <= 0) {
+                        break;
+                    }
+                    PendingLog next = queue.poll(waitNanos, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingLog> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, log) -> {
+                ps.setObject(1, log.id());
+                ps.setString(2, log.message());
+                ps.setTimestamp(3, Timestamp.from(log.createdAt()));
+                ps.setObject(4, log.userId());
+            });
+            written.add(batch.size());
+            batches.increment();
+        } catch (DataAccessException e) {
+            // One bad row fails the whole batch; retry row by row so only that one is lost
+            logger.warn("[LOG_WRITER] Batch of {} failed, retrying row by row: {}", batch.size(), e.getMessage());
+            for (PendingLog log : batch) {
+                try {
+                    jdbcTemplate.update(INSERT_SQL, log.id(), log.message(), Timestamp.from(log.createdAt()), log.userId());
+                    written.increment();
+                } catch (DataAccessException rowError) {
+                    failed.increment();
+                    logger.error("[LOG_WRITER] Dropping log \"{}\": {}", log.message(), rowError.getMessage());
+                }
+            }
+        }
+    }
+}
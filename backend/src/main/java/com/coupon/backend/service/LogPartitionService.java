@@ -0,0 +1,184 @@
+package com.coupon.backend.service;
+
+import com.coupon.backend.scheduler.ClusterJobScheduler;
+import com.coupon.backend.scheduler.LogPartitionMaintenanceJob;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps loghistory range-partitioned by month on created_at.
+ *
+ * On startup a plain loghistory table is converted in place, then partitions are kept created a
+ * few months ahead. Retention drops whole partitions older than the configured number of months,
+ * after rolling their per-day, per-user counts up into loghistory_daily.
+ * Rows outside every monthly range land in loghistory_default, and move to their month's partition
+ * when it is created. Startup takes the maintenance job's advisory lock, so only one instance
+ * converts the table and no instance does it while maintenance runs.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class LogPartitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogPartitionService.class);
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("loghistory_p(\\d{4})_(\\d{2})");
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.logs.partitions.retention-months:12}")
+    private int retentionMonths;
+
+    @Value("${app.logs.partitions.months-ahead:2}")
+    private int monthsAhead;
+
+    @PostConstruct
+    public void initialize() {
+        try {
+            // Waits for an instance that is converting or maintaining; the lock ends with the transaction
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?)",
+                        ClusterJobScheduler.lockKey(LogPartitionMaintenanceJob.NAME));
+                if (!isPartitioned()) {
+                    convertToPartitioned();
+                }
+                jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_loghistory_created_at ON loghistory (created_at DESC)");
+                jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_loghistory_user_created_at ON loghistory (user_id, created_at DESC)");
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS loghistory_daily (" +
+                        "day DATE NOT NULL, user_id UUID NOT NULL, entries BIGINT NOT NULL, PRIMARY KEY (day, user_id))");
+                createUpcomingPartitions();
+            });
+        } catch (DataAccessException e) {
+            logger.error("[LOG_PARTITIONS] Could not prepare partitioned loghistory - Error: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Creates the partitions for the coming months and drops the ones past retention.
+     * Scheduled by LogPartitionMaintenanceJob.
+     */
+    public void maintain() {
+        createUpcomingPartitions();
+        dropExpiredPartitions();
+    }
+
+    private boolean isPartitioned() {
+        List<String> kinds = jdbcTemplate.queryForList(
+                "SELECT c.relkind::text FROM pg_class c WHERE c.oid = to_regclass('loghistory')", String.class);
+        return !kinds.isEmpty() && "p".equals(kinds.get(0));
+    }
+
+    private void convertToPartitioned() {
+        List<LocalDate> minCreated = jdbcTemplate.queryForList(
+                "SELECT min(created_at)::date FROM loghistory", LocalDate.class);
+        YearMonth firstPartition = (minCreated.isEmpty() || minCreated.get(0) == null)
+                ? YearMonth.now()
+                : YearMonth.from(minCreated.get(0));
+
+        // Runs inside the caller's transaction
+        logger.info("[LOG_PARTITIONS] Converting loghistory to monthly partitions from {}", firstPartition);
+        jdbcTemplate.execute("ALTER TABLE loghistory RENAME TO loghistory_legacy");
+        jdbcTemplate.execute("CREATE TABLE loghistory (" +
+                "id UUID NOT NULL, " +
+                "message VARCHAR(2000) NOT NULL, " +
+                "created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL, " +
+                "user_id UUID NOT NULL, " +
+                "CONSTRAINT pk_loghistory PRIMARY KEY (id, created_at)" +
+                ") PARTITION BY RANGE (created_at)");
+        jdbcTemplate.execute("CREATE TABLE loghistory_default PARTITION OF loghistory DEFAULT");
+        for (YearMonth month = firstPartition; !month.isAfter(YearMonth.now().plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            createPartition(month);
+        }
+        jdbcTemplate.execute("INSERT INTO loghistory (id, message, created_at, user_id) " +
+                "SELECT id, message, created_at, user_id FROM loghistory_legacy");
+        jdbcTemplate.execute("DROP TABLE loghistory_legacy");
+        logger.info("[LOG_PARTITIONS] loghistory converted");
+    }
+
+    private void createUpcomingPartitions() {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartition(current.plusMonths(i));
+        }
+    }
+
+    /**
+     * Creates a month's partition unless it exists. Rows of that month already in the default
+     * partition would make a plain CREATE ... PARTITION OF fail, so they are moved into the new
+     * table before it is attached, all in one transaction.
+     */
+    private void createPartition(YearMonth month) {
+        String partition = partitionName(month);
+        String from = "'" + month.atDay(1) + "'";
+        String to = "'" + month.plusMonths(1).atDay(1) + "'";
+        transactionTemplate.executeWithoutResult(status -> {
+            if (jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition)) {
+                return;
+            }
+            jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE loghistory INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM loghistory_default " +
+                    "WHERE created_at >= " + from + " AND created_at < " + to + " " +
+                    "RETURNING id, message, created_at, user_id) " +
+                    "INSERT INTO " + partition + " (id, message, created_at, user_id) " +
+                    "SELECT id, message, created_at, user_id FROM moved");
+            jdbcTemplate.execute("ALTER TABLE loghistory ATTACH PARTITION " + partition +
+                    " FOR VALUES FROM (" + from + ") TO (" + to + ")");
+            if (moved > 0) {
+                logger.warn("[LOG_PARTITIONS] Moved {} rows from loghistory_default into {}", moved, partition);
+            }
+        });
+    }
+
+    private void dropExpiredPartitions() {
+        YearMonth oldestKept = YearMonth.now().minusMonths(retentionMonths);
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname::text FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = to_regclass('loghistory')", String.class);
+
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (!month.isBefore(oldestKept)) {
+                continue;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.update("INSERT INTO loghistory_daily (day, user_id, entries) " +
+                            "SELECT created_at::date, user_id, count(*) FROM " + partition + " GROUP BY 1, 2 " +
+                            "ON CONFLICT (day, user_id) DO UPDATE SET entries = loghistory_daily.entries + EXCLUDED.entries");
+                    jdbcTemplate.execute("DROP TABLE " + partition);
+                });
+                logger.info("[LOG_PARTITIONS] Rolled up and dropped {}", partition);
+            } catch (DataAccessException e) {
+                logger.error("[LOG_PARTITIONS] Could not drop {} - Error: {}", partition, e.getMessage());
+            }
+        }
+    }
+
+    private static String partitionName(YearMonth month) {
+        return "loghistory_p" + month.format(PARTITION_SUFFIX);
+    }
+}
@@ -0,0 +1,130 @@
+package com.coupon.backend.service;
+
+import com.coupon.backend.exception.TooManyRequestsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-window attempt limits checked before any password is hashed:
+ * every sign-in/sign-up attempt counts against the client IP, sign-ins also count against
+ * the account until one succeeds. Each check and its count happen in one atomic step, so
+ * concurrent attempts cannot all pass the limit. Over the limit, the key is blocked until
+ * its window ends.
+ */
+@Service
+public class LoginAttemptThrottle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginAttemptThrottle.class);
+
+    private static final class Window {
+        private final long startedAt;
+        private int count;
+
+        private Window(long startedAt) {
+            this.startedAt = startedAt;
+        }
+    }
+
+    private final int maxAttemptsPerIp;
+    private final int maxFailuresPerAccount;
+    private final long windowMillis;
+    private final int maxTrackedKeys;
+
+    private final Map<String, Window> ipAttempts = new ConcurrentHashMap<>();
+    private final Map<String, Window> accountFailures = new ConcurrentHashMap<>();
+
+    private final LongAdder blocked = new LongAdder();
+
+    public LoginAttemptThrottle(
+            @Value("${auth.throttle.max-attempts-per-ip:20}") int maxAttemptsPerIp,
+            @Value("${auth.throttle.max-failures-per-account:5}") int maxFailuresPerAccount,
+            @Value("${auth.throttle.window-seconds:300}") long windowSeconds,
+            @Value("${auth.throttle.max-tracked-keys:100000}") int maxTrackedKeys) {
+        this.maxAttemptsPerIp = maxAttemptsPerIp;
+        this.maxFailuresPerAccount = maxFailuresPerAccount;
+        this.windowMillis = windowSeconds * 1000;
+        this.maxTrackedKeys = maxTrackedKeys;
+    }
+
+    /**
+     * Counts an attempt from this IP (and against the account, when given) and rejects it if
+     * either is over its limit.
+     */
+    public void checkAttempt(String clientIp, String email) {
+        long now = System.currentTimeMillis();
+
+        if (email != null) {
+            count(accountFailures, normalize(email), maxFailuresPerAccount, "account", now);
+        }
+        if (clientIp != null) {
+            count(ipAttempts, clientIp, maxAttemptsPerIp, "IP", now);
+        }
+    }
+
+    public void recordSuccess(String email) {
+        if (email != null) {
+            accountFailures.remove(normalize(email));
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("trackedIps", ipAttempts.size());
+        stats.put("trackedAccounts", accountFailures.size());
+        stats.put("blocked", blocked.sum());
+        return stats;
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        ipAttempts.values().removeIf(window -> now - window.startedAt >= windowMillis);
+        accountFailures.values().removeIf(window -> now - window.startedAt >= windowMillis);
+    }
+
+    /**
+     * Checks and counts in one compute on the key, restarting the window when it has expired.
+     * New keys are not tracked once maxTrackedKeys is reached (the limit is then not applied
+     * rather than growing without bound).
+     */
+    private void count(Map<String, Window> windows, String key, int limit, String kind, long now) {
+        Window[] full = new Window[1];
+        windows.compute(key, (k, window) -> {
+            if (window == null || now - window.startedAt >= windowMillis) {
+                if (window == null && windows.size() >= maxTrackedKeys) {
+                    return null;
+                }
+                window = new Window(now);
+            }
+            if (window.count >= limit) {
+                full[0] = window;
+            } else {
+                window.count++;
+            }
+            return window;
+        });
+        if (full[0] != null) {
+            reject(kind, key, full[0], now);
+        }
+    }
+
+    private void reject(String kind, String key, Window window, long now) {
+        blocked.increment();
+        long retryAfterSeconds = Math.max(1, (window.startedAt + windowMillis - now + 999) / 1000);
+        logger.warn("[AUTH] Too many attempts for {} {} - Blocked for {}s", kind, key, retryAfterSeconds);
+        throw new TooManyRequestsException(
+                "Too many sign-in attempts. Please try again in " + retryAfterSeconds + " seconds.", retryAfterSeconds);
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase();
+    }
+}
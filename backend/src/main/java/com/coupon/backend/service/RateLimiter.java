@@ -0,0 +1,239 @@
+package com.coupon.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token buckets for the expensive endpoints, one bucket per (policy, user or IP).
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the time at which it will be full again
+ * (the GCRA form of a token bucket), so taking a token is one CAS and needs no lock.
+ * A bucket whose refill time has passed is indistinguishable from a new one, which is what
+ * lets idle keys be evicted without losing state. Each policy tracks at most
+ * {@code rate-limit.max-keys-per-policy} keys; past that, new keys share one overflow bucket
+ * so scanning traffic cannot grow the maps.
+ * <p>
+ * Policies are listed in {@code rate-limit.policies} and configured under
+ * {@code rate-limit.<name>.*}: routes ("METHOD /pattern", comma separated, relative to the
+ * context path), key (USER or IP), capacity (burst size) and refill-per-minute.
+ */
+@Service
+public class RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiter.class);
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    public enum KeyType {
+        /** Authenticated user id, falling back to the client IP for anonymous requests */
+        USER,
+        IP
+    }
+
+    public record Route(String method, String pattern) {
+        boolean matches(String requestMethod, String path) {
+            return (method == null || method.equalsIgnoreCase(requestMethod)) && PATH_MATCHER.match(pattern, path);
+        }
+    }
+
+    public static final class Policy {
+        private final String name;
+        private final List<Route> routes;
+        private final KeyType keyType;
+        private final int capacity;
+        private final int refillPerMinute;
+        private final long intervalNanos;
+        private final long burstNanos;
+
+        private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicLong overflowBucket = new AtomicLong(System.nanoTime());
+        private final LongAdder allowed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder overflowed = new LongAdder();
+        private final LongAdder evicted = new LongAdder();
+
+        Policy(String name, List<Route> routes, KeyType keyType, int capacity, int refillPerMinute) {
+            this.name = name;
+            this.routes = routes;
+            this.keyType = keyType;
+            this.capacity = capacity;
+            this.refillPerMinute = refillPerMinute;
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / refillPerMinute;
+            this.burstNanos = intervalNanos * capacity;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public KeyType getKeyType() {
+            return keyType;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+    }
+
+    /**
+     * Outcome of one acquire; retryAfterSeconds is 0 when allowed.
+     */
+    public record Decision(boolean allowed, long retryAfterSeconds) {
+    }
+
+    /**
+     * The bucket a request was charged to. RateLimitFilter stores it as a request attribute so
+     * handlers doing several units of work in one request can charge the rest to the same bucket.
+     */
+    public record Bucket(Policy policy, String key) {
+        public static final String REQUEST_ATTRIBUTE = RateLimiter.class.getName() + ".bucket";
+    }
+
+    private static final Decision ALLOWED = new Decision(true, 0);
+
+    private final boolean enabled;
+    private final int maxKeysPerPolicy;
+    private final List<Policy> policies = new ArrayList<>();
+
+    public RateLimiter(Environment environment,
+                       @Value("${rate-limit.enabled:true}") boolean enabled,
+                       @Value("${rate-limit.max-keys-per-policy:50000}") int maxKeysPerPolicy,
+                       @Value("${rate-limit.policies:}") List<String> policyNames) {
+        this.enabled = enabled;
+        this.maxKeysPerPolicy = maxKeysPerPolicy;
+
+        for (String rawName : policyNames) {
+            String name = rawName.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            Policy policy = loadPolicy(environment, name);
+            policies.add(policy);
+            logger.info("[RATE_LIMIT] Policy {} - {} per {} (burst {}, {}/min)",
+                    name, policy.routes, policy.keyType, policy.capacity, policy.refillPerMinute);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled && !policies.isEmpty();
+    }
+
+    /**
+     * First policy whose routes match, or null when the request is not limited.
+     */
+    public Policy findPolicy(String method, String path) {
+        for (Policy policy : policies) {
+            for (Route route : policy.routes) {
+                if (route.matches(method, path)) {
+                    return policy;
+                }
+            }
+        }
+        return null;
+    }
+
+    public Decision tryAcquire(Policy policy, String key) {
+        long now = System.nanoTime();
+        AtomicLong bucket = bucketFor(policy, key, now);
+
+        while (true) {
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt, now) + policy.intervalNanos;
+            long excess = next - now - policy.burstNanos;
+            if (excess > 0) {
+                policy.rejected.increment();
+                return new Decision(false, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(excess + 999_999_999L)));
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                policy.allowed.increment();
+                return ALLOWED;
+            }
+        }
+    }
+
+    /**
+     * Drops buckets that have refilled completely; they carry no state a new bucket would not.
+     * A request racing with the removal may get a fresh bucket, i.e. at worst one extra burst.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval-ms:30000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (Policy policy : policies) {
+            int before = policy.buckets.size();
+            policy.buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+            int removed = before - policy.buckets.size();
+            if (removed > 0) {
+                policy.evicted.add(removed);
+                logger.debug("[RATE_LIMIT] Evicted {} idle buckets from {}", removed, policy.name);
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("maxKeysPerPolicy", maxKeysPerPolicy);
+        for (Policy policy : policies) {
+            Map<String, Object> policyStats = new HashMap<>();
+            policyStats.put("capacity", policy.capacity);
+            policyStats.put("refillPerMinute", policy.refillPerMinute);
+            policyStats.put("key", policy.keyType);
+            policyStats.put("trackedKeys", policy.buckets.size());
+            policyStats.put("allowed", policy.allowed.sum());
+            policyStats.put("rejected", policy.rejected.sum());
+            policyStats.put("overflowed", policy.overflowed.sum());
+            policyStats.put("evicted", policy.evicted.sum());
+            stats.put(policy.name, policyStats);
+        }
+        return stats;
+    }
+
+    private AtomicLong bucketFor(Policy policy, String key, long now) {
+        AtomicLong bucket = policy.buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (policy.buckets.size() >= maxKeysPerPolicy) {
+            policy.overflowed.increment();
+            return policy.overflowBucket;
+        }
+        return policy.buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+
+    private static Policy loadPolicy(Environment environment, String name) {
+        String prefix = "rate-limit." + name + ".";
+        String routesSpec = environment.getProperty(prefix + "routes");
+        if (routesSpec == null || routesSpec.isBlank()) {
+            throw new IllegalStateException("Missing " + prefix + "routes");
+        }
+
+        List<Route> routes = new ArrayList<>();
+        for (String spec : routesSpec.split(",")) {
+            String[] parts = spec.trim().split("\\s+");
+            routes.add(parts.length == 1 ? new Route(null, parts[0]) : new Route(parts[0], parts[1]));
+        }
+
+        KeyType keyType = KeyType.valueOf(environment.getProperty(prefix + "key", "IP").trim().toUpperCase());
+        int capacity = environment.getProperty(prefix + "capacity", Integer.class, 10);
+        int refillPerMinute = environment.getProperty(prefix + "refill-per-minute", Integer.class, 60);
+        if (capacity < 1 || refillPerMinute < 1) {
+            throw new IllegalStateException("Rate limit " + name + " needs capacity and refill-per-minute of at least 1");
+        }
+        return new Policy(name, List.copyOf(routes), keyType, capacity, refillPerMinute);
+    }
+}
@@ -1,13 +1,24 @@
 package com.coupon.backend.service;
 
-import com.coupon.backend.entity.UserDetail;
+import com.coupon.backend.entity.PointsLedgerEntry;
+import com.coupon.backend.enums.PointsReason;
+import com.coupon.backend.event.PointsChangedEvent;
+import com.coupon.backend.repository.PointsLedgerRepository;
 import com.coupon.backend.repository.UserDetailRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
 import java.util.UUID;
 
+/**
+ * Points changes are appended to the points ledger, and the balance on userdetail is moved by a
+ * single conditional UPDATE instead of read-modify-write, so concurrent changes for the same user
+ * are never lost and a deduction can never take the balance below zero.
+ */
 @Service
 public class RewardPointsService {
 
@@ -16,69 +27,72 @@ public class RewardPointsService {
     @Autowired
     private UserDetailRepository userDetailRepository;
 
+    @Autowired
+    private PointsLedgerRepository pointsLedgerRepository;
+
     @Autowired
     private LogHistoryService logHistoryService;
 
-    public void addPointsById(UUID id, int pointsToAdd) {
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public void addPointsById(UUID id, int pointsToAdd, PointsReason reason, UUID referenceId) {
         logger.debug("[REWARDS] Adding {} points to user ID: {}", pointsToAdd, id);
-        
-        UserDetail user = userDetailRepository.findById(id)
-                .orElseThrow(() -> {
-                    logger.error("[REWARDS] User not found - ID: {}", id);
-                    return new RuntimeException("Account not found. Please sign in again.");
-                });
-        
-        int currentPoints = user.getPoints() != null ? user.getPoints() : 0;
-        int newPoints = currentPoints + pointsToAdd;
-        
-        logger.debug("[REWARDS] User: {} - Current points: {}, Adding: {}, New total: {}",
-            user.getEmail(), currentPoints, pointsToAdd, newPoints);
-        
-        user.setPoints(newPoints);
-        
-        // Update total points earned
-        int totalEarned = user.getTotalPointsEarned() != null ? user.getTotalPointsEarned() : 0;
-        user.setTotalPointsEarned(totalEarned + pointsToAdd);
-        
-        userDetailRepository.save(user);
-        
+
+        PointsLedgerEntry entry = pointsLedgerRepository.save(new PointsLedgerEntry(id, pointsToAdd, reason, referenceId));
+
+        Integer newPoints = userDetailRepository.addPoints(id, pointsToAdd);
+        if (newPoints == null) {
+            logger.error("[REWARDS] User not found - ID: {}", id);
+            throw new RuntimeException("Account not found. Please sign in again.");
+        }
+
+        logger.debug("[REWARDS] User ID: {} - Added: {}, New total: {}", id, pointsToAdd, newPoints);
+
         // Log user activity
-        logHistoryService.createLog("Earned " + pointsToAdd + " reward points (Balance: " + newPoints + ")", id);
+        logHistoryService.record("Earned " + pointsToAdd + " reward points (Balance: " + newPoints + ")", id);
+        publish(entry);
     }
 
-    public void deductPointsById(UUID id, int pointsToDeduct) {
+    /**
+     * Deducts points. The balance UPDATE locks the user row until commit, so callers should make
+     * this the last write of their transaction.
+     */
+    @Transactional
+    public void deductPointsById(UUID id, int pointsToDeduct, PointsReason reason, UUID referenceId) {
         logger.debug("[REWARDS] Deducting {} points from user ID: {}", pointsToDeduct, id);
-        
-        UserDetail user = userDetailRepository.findById(id)
-                .orElseThrow(() -> {
-                    logger.error("[REWARDS] User not found - ID: {}", id);
-                    return new RuntimeException("Account not found. Please sign in again.");
-                });
-        
-        int currentPoints = user.getPoints() != null ? user.getPoints() : 0;
-        
-        logger.debug("[REWARDS] User: {} - Current points: {}, Deducting: {}",
-            user.getEmail(), currentPoints, pointsToDeduct);
-        
-        if (currentPoints < pointsToDeduct) {
-            logger.warn("[REWARDS] Insufficient points - User: {}, Has: {}, Needs: {}",
-                user.getEmail(), currentPoints, pointsToDeduct);
+
+        PointsLedgerEntry entry = pointsLedgerRepository.save(new PointsLedgerEntry(id, -pointsToDeduct, reason, referenceId));
+
+        Integer newPoints = userDetailRepository.deductPoints(id, pointsToDeduct);
+        if (newPoints == null) {
+            int currentPoints = userDetailRepository.findPointsById(id)
+                    .orElseThrow(() -> {
+                        logger.error("[REWARDS] User not found - ID: {}", id);
+                        return new RuntimeException("Account not found. Please sign in again.");
+                    });
+            logger.warn("[REWARDS] Insufficient points - User ID: {}, Has: {}, Needs: {}",
+                id, currentPoints, pointsToDeduct);
             throw new RuntimeException("Not enough points. You need " + pointsToDeduct + " points but have " + currentPoints + ".");
         }
-        
-        int newPoints = currentPoints - pointsToDeduct;
-        user.setPoints(newPoints);
-        
-        // Update total points spent
-        int totalSpent = user.getTotalPointsSpent() != null ? user.getTotalPointsSpent() : 0;
-        user.setTotalPointsSpent(totalSpent + pointsToDeduct);
-        
-        userDetailRepository.save(user);
-        
-        logger.info("[REWARDS] Points deducted successfully - User: {}, New balance: {}",
-            user.getEmail(), newPoints);
-        
+
+        logger.info("[REWARDS] Points deducted successfully - User ID: {}, New balance: {}", id, newPoints);
+
         // Log user activity
-        logHistoryService.createLog("Viewed coupon code - Deducted " + pointsToDeduct + " points (Balance: " + newPoints + ")", id);
+        logHistoryService.record("Viewed coupon code - Deducted " + pointsToDeduct + " points (Balance: " + newPoints + ")", id);
+        publish(entry);
+    }
+
+    /**
+     * Records the points a new account starts with (already set on the user row).
+     */
+    public void recordSignupBonus(UUID id, int points) {
+        publish(pointsLedgerRepository.save(new PointsLedgerEntry(id, points, PointsReason.SIGNUP_BONUS, null)));
+    }
+
+    private void publish(PointsLedgerEntry entry) {
+        eventPublisher.publishEvent(new PointsChangedEvent(entry.getUserId(), entry.getDelta(), entry.getReason(),
+                entry.getReferenceId(), entry.getCreatedAt()));
     }
 }
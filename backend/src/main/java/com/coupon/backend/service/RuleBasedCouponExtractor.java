@@ -0,0 +1,351 @@
+package com.coupon.backend.service;
+
+import com.coupon.backend.enums.DiscountType;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Deterministic extraction for well-structured promo texts ("Use code SAVE20 for 20% off,
+ * min order ₹499, valid till 31 Mar"). Produces the same JSON-shaped map the model returns,
+ * so both paths go through {@link com.coupon.backend.mapper.ExtractResultMapper}, plus a
+ * confidence score: found fields add weight, ambiguity (two codes, two discounts) halves it.
+ */
+@Component
+public class RuleBasedCouponExtractor {
+
+    public record Result(Map<String, Object> fields, double confidence) {
+    }
+
+    private static final double CODE_WEIGHT = 0.35;
+    private static final double DISCOUNT_WEIGHT = 0.35;
+    private static final double VALID_TILL_WEIGHT = 0.1;
+    private static final double PLATFORM_WEIGHT = 0.1;
+    private static final double MIN_ORDER_WEIGHT = 0.05;
+    private static final double MAX_DISCOUNT_WEIGHT = 0.05;
+
+    private static final String CURRENCY = "(?:₹|rs\\.?|inr|\\$)";
+    private static final String AMOUNT = "(\\d[\\d,]*(?:\\.\\d+)?)";
+
+    // The keyword is case-insensitive, the code itself must be upper case / digits. A second
+    // code right after it ("SAVE10 or SAVE20") is captured so the result counts as ambiguous.
+    private static final Pattern CODE = Pattern.compile(
+            "(?i:(?:promo|coupon|discount|voucher)?\\s*code)\\s*[:\\-]?\\s*[\"'“‘]?([A-Z0-9][A-Z0-9_-]{3,19})\\b"
+                    + "(?:\\s*(?i:or|/|,)\\s*[\"'“‘]?([A-Z0-9][A-Z0-9_-]{3,19})\\b)?");
+    // Anchored on the whole number, so "100%" is not read as "00%" and "150%" is not read at all
+    private static final Pattern PERCENT = Pattern.compile(
+            "(?<![\\d.])(100|\\d{1,2}(?:\\.\\d+)?)\\s*%\\s*(?:off|discount|cashback)?", Pattern.CASE_INSENSITIVE);
+    private static final Pattern FLAT = Pattern.compile(
+            "(?:flat\\s*" + CURRENCY + "?\\s*" + AMOUNT + ")|(?:" + CURRENCY + "\\s*" + AMOUNT + "\\s*(?:off|discount|cashback))",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern MIN_ORDER = Pattern.compile(
+            "(?:min(?:imum)?\\.?\\s*(?:order|purchase|cart|spend|txn|transaction)(?:\\s*value)?(?:\\s*of)?|(?:orders?|purchases?|cart)\\s*(?:above|over|of|worth))"
+                    + "\\s*[:\\-]?\\s*" + CURRENCY + "?\\s*" + AMOUNT,
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern MAX_DISCOUNT = Pattern.compile(
+            "(?:up\\s*to|upto|max(?:imum)?\\.?\\s*(?:discount|cashback|off|savings?)?(?:\\s*of)?)\\s*[:\\-]?\\s*" + CURRENCY + "\\s*" + AMOUNT,
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern VALID_TILL = Pattern.compile(
+            "(?:valid\\s*(?:till|until|upto|up\\s*to|thru|through|by)|expires?|expiry(?:\\s*date)?|(?:offer\\s*)?ends?|till|until)(?:\\s*on)?\\s*[:\\-]?\\s*",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern VALID_FROM = Pattern.compile(
+            "(?:valid\\s*from|starts?(?:\\s*on)?|from)\\s*[:\\-]?\\s*", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern ISO_DATE = Pattern.compile("(\\d{4})-(\\d{1,2})-(\\d{1,2})");
+    private static final Pattern NUMERIC_DATE = Pattern.compile("(\\d{1,2})[/.\\-](\\d{1,2})[/.\\-](\\d{2,4})");
+    private static final Pattern DAY_MONTH = Pattern.compile(
+            "(\\d{1,2})(?:st|nd|rd|th)?\\s*(?:of\\s*)?([a-z]{3,9})\\.?,?\\s*(\\d{4})?", Pattern.CASE_INSENSITIVE);
+    private static final Pattern MONTH_DAY = Pattern.compile(
+            "([a-z]{3,9})\\.?\\s*(\\d{1,2})(?:st|nd|rd|th)?,?\\s*(\\d{4})?", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern NEW_USERS = Pattern.compile("\\bnew\\s*(?:users?|customers?)\\b|\\bfirst\\s*order\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern SINGLE_USE = Pattern.compile("\\bonce\\s*per\\s*user\\b|\\bone[-\\s]*time\\b|\\bsingle[-\\s]*use\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern TERMS = Pattern.compile(
+            "t\\s*&\\s*c|terms|not\\s*valid|cannot\\s*be|can't\\s*be|clubbed|applicable|only\\s*on|new\\s*users?|once\\s*per|per\\s*user",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern SENTENCE = Pattern.compile("[^.!\\n]+[.!]?");
+
+    private static final String[] MONTHS = {"january", "february", "march", "april", "may", "june", "july",
+            "august", "september", "october", "november", "december"};
+
+    private record Platform(Pattern pattern, String name, String category) {
+    }
+
+    private static final List<Platform> PLATFORMS = new ArrayList<>();
+
+    static {
+        platform("Swiggy", "Food", "swiggy", "instamart");
+        platform("Zomato", "Food", "zomato");
+        platform("Domino's", "Food", "domino's", "dominos");
+        platform("Pizza Hut", "Food", "pizza hut", "pizzahut");
+        platform("KFC", "Food", "kfc");
+        platform("McDonald's", "Food", "mcdonald's", "mcdonalds");
+        platform("Zepto", "Grocery", "zepto");
+        platform("Blinkit", "Grocery", "blinkit");
+        platform("BigBasket", "Grocery", "bigbasket", "big basket");
+        platform("Amazon", "Shopping", "amazon");
+        platform("Flipkart", "Shopping", "flipkart");
+        platform("Meesho", "Shopping", "meesho");
+        platform("Tata CLiQ", "Shopping", "tata cliq", "tatacliq");
+        platform("Croma", "Electronics", "croma");
+        platform("Myntra", "Fashion", "myntra");
+        platform("Ajio", "Fashion", "ajio");
+        platform("Nykaa", "Beauty", "nykaa");
+        platform("Lenskart", "Fashion", "lenskart");
+        platform("Uber", "Travel", "uber");
+        platform("Ola", "Travel", "ola");
+        platform("Rapido", "Travel", "rapido");
+        platform("MakeMyTrip", "Travel", "makemytrip", "make my trip", "mmt");
+        platform("Goibibo", "Travel", "goibibo");
+        platform("Cleartrip", "Travel", "cleartrip");
+        platform("EaseMyTrip", "Travel", "easemytrip");
+        platform("BookMyShow", "Entertainment", "bookmyshow", "book my show");
+        platform("Paytm", "Payments", "paytm");
+        platform("PhonePe", "Payments", "phonepe");
+        platform("Google Pay", "Payments", "google pay", "gpay");
+    }
+
+    private static void platform(String name, String category, String... aliases) {
+        for (String alias : aliases) {
+            PLATFORMS.add(new Platform(
+                    Pattern.compile("\\b" + Pattern.quote(alias) + "\\b", Pattern.CASE_INSENSITIVE), name, category));
+        }
+    }
+
+    public Result extract(String text) {
+        return extract(text, LocalDate.now());
+    }
+
+    public Result extract(String text, LocalDate today) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        if (text == null || text.isBlank()) {
+            return new Result(fields, 0);
+        }
+        double confidence = 0;
+        boolean ambiguous = false;
+
+        Set<String> codes = findAll(CODE, text);
+        if (!codes.isEmpty()) {
+            fields.put("code", codes.iterator().next());
+            confidence += CODE_WEIGHT;
+            ambiguous = codes.size() > 1;
+        }
+
+        Set<BigDecimal> percents = findAmounts(PERCENT, text);
+        Set<BigDecimal> flats = findAmounts(FLAT, text);
+        if (!percents.isEmpty() || !flats.isEmpty()) {
+            boolean percentage = !percents.isEmpty();
+            fields.put("discountType", percentage ? DiscountType.PERCENTAGE.name() : DiscountType.FLAT.name());
+            fields.put("discountValue", (percentage ? percents : flats).iterator().next());
+            confidence += DISCOUNT_WEIGHT;
+            ambiguous |= percents.size() > 1 || flats.size() > 1;
+        }
+
+        BigDecimal minOrder = firstAmount(MIN_ORDER, text);
+        if (minOrder != null) {
+            fields.put("minOrderValue", minOrder);
+            confidence += MIN_ORDER_WEIGHT;
+        }
+        BigDecimal maxDiscount = firstAmount(MAX_DISCOUNT, text);
+        if (maxDiscount != null && !maxDiscount.equals(fields.get("discountValue"))) {
+            fields.put("maxDiscountValue", maxDiscount);
+            confidence += MAX_DISCOUNT_WEIGHT;
+        }
+
+        LocalDate validTill = findDate(VALID_TILL, text, today);
+        if (validTill != null) {
+            fields.put("validTill", validTill.toString());
+            confidence += VALID_TILL_WEIGHT;
+        }
+        LocalDate validFrom = findDate(VALID_FROM, text, today);
+        if (validFrom != null && (validTill == null || !validFrom.isAfter(validTill))) {
+            fields.put("validFrom", validFrom.toString());
+        }
+
+        Platform platform = findPlatform(text);
+        if (platform != null) {
+            fields.put("platform", platform.name());
+            fields.put("category", platform.category());
+            confidence += PLATFORM_WEIGHT;
+        }
+
+        if (NEW_USERS.matcher(text).find()) {
+            fields.put("requiresUniqueUser", true);
+        }
+        if (SINGLE_USE.matcher(text).find()) {
+            fields.put("usageType", "SINGLE_USE");
+        }
+        String terms = findTerms(text);
+        if (terms != null) {
+            fields.put("terms", terms);
+        }
+
+        fields.put("title", title(fields));
+        fields.put("description", firstLine(text));
+        fields.put("isActive", true);
+
+        if (ambiguous) {
+            // Several candidate codes or discounts: let the model pick the right one
+            confidence /= 2;
+        }
+        return new Result(fields, Math.min(1.0, confidence));
+    }
+
+    private static Set<String> findAll(Pattern pattern, String text) {
+        Set<String> values = new LinkedHashSet<>();
+        Matcher m = pattern.matcher(text);
+        while (m.find()) {
+            for (int g = 1; g <= m.groupCount(); g++) {
+                if (m.group(g) != null) {
+                    values.add(m.group(g));
+                }
+            }
+        }
+        return values;
+    }
+
+    private static Set<BigDecimal> findAmounts(Pattern pattern, String text) {
+        Set<BigDecimal> values = new LinkedHashSet<>();
+        Matcher m = pattern.matcher(text);
+        while (m.find()) {
+            BigDecimal amount = amount(m);
+            if (amount != null && amount.signum() > 0) {
+                values.add(amount);
+            }
+        }
+        return values;
+    }
+
+    private static BigDecimal firstAmount(Pattern pattern, String text) {
+        Matcher m = pattern.matcher(text);
+        return m.find() ? amount(m) : null;
+    }
+
+    // Patterns may have alternative groups; the amount is the last group that matched
+    private static BigDecimal amount(Matcher m) {
+        for (int g = m.groupCount(); g >= 1; g--) {
+            if (m.group(g) != null) {
+                try {
+                    return new BigDecimal(m.group(g).replace(",", ""));
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static LocalDate findDate(Pattern keyword, String text, LocalDate today) {
+        Matcher m = keyword.matcher(text);
+        while (m.find()) {
+            LocalDate date = parseDate(text.substring(m.end(), Math.min(text.length(), m.end() + 30)), today);
+            if (date != null) {
+                return date;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Date at the start of the fragment. Numeric dates are day-first; a date without a year
+     * is the next one on or after today.
+     */
+    static LocalDate parseDate(String fragment, LocalDate today) {
+        try {
+            Matcher m = ISO_DATE.matcher(fragment);
+            if (m.lookingAt()) {
+                return LocalDate.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)), Integer.parseInt(m.group(3)));
+            }
+            m = NUMERIC_DATE.matcher(fragment);
+            if (m.lookingAt()) {
+                int year = Integer.parseInt(m.group(3));
+                return LocalDate.of(year < 100 ? 2000 + year : year, Integer.parseInt(m.group(2)), Integer.parseInt(m.group(1)));
+            }
+            m = DAY_MONTH.matcher(fragment);
+            if (m.lookingAt() && month(m.group(2)) != null) {
+                return withYear(Integer.parseInt(m.group(1)), month(m.group(2)), m.group(3), today);
+            }
+            m = MONTH_DAY.matcher(fragment);
+            if (m.lookingAt() && month(m.group(1)) != null) {
+                return withYear(Integer.parseInt(m.group(2)), month(m.group(1)), m.group(3), today);
+            }
+        } catch (DateTimeException e) {
+            return null;
+        }
+        return null;
+    }
+
+    // "mar", "march" and "sept" are months; "marketing" is not
+    private static Integer month(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        if (lower.length() < 3) {
+            return null;
+        }
+        for (int i = 0; i < MONTHS.length; i++) {
+            if (MONTHS[i].startsWith(lower)) {
+                return i + 1;
+            }
+        }
+        return null;
+    }
+
+    private static LocalDate withYear(int day, int month, String year, LocalDate today) {
+        if (year != null) {
+            return LocalDate.of(Integer.parseInt(year), month, day);
+        }
+        LocalDate date = LocalDate.of(today.getYear(), month, day);
+        return date.isBefore(today) ? date.plusYears(1) : date;
+    }
+
+    private static Platform findPlatform(String text) {
+        for (Platform platform : PLATFORMS) {
+            if (platform.pattern().matcher(text).find()) {
+                return platform;
+            }
+        }
+        return null;
+    }
+
+    private static String findTerms(String text) {
+        List<String> sentences = new ArrayList<>();
+        Matcher m = SENTENCE.matcher(text);
+        while (m.find()) {
+            String sentence = m.group().trim();
+            if (!sentence.isEmpty() && TERMS.matcher(sentence).find()) {
+                sentences.add(sentence);
+            }
+        }
+        return sentences.isEmpty() ? null : String.join(" ", sentences);
+    }
+
+    private static String title(Map<String, Object> fields) {
+        Object value = fields.get("discountValue");
+        String platform = (String) fields.get("platform");
+        String discount = null;
+        if (value instanceof BigDecimal amount) {
+            discount = DiscountType.PERCENTAGE.name().equals(fields.get("discountType"))
+                    ? amount.toPlainString() + "% off"
+                    : "₹" + amount.toPlainString() + " off";
+        }
+        if (discount != null) {
+            return platform != null ? discount + " on " + platform : discount;
+        }
+        return platform != null ? platform + " offer" : "Coupon offer";
+    }
+
+    private static String firstLine(String text) {
+        String line = text.strip().lines().findFirst().orElse("").strip();
+        return line.length() > 200 ? line.substring(0, 200) : line;
+    }
+}
@@ -0,0 +1,312 @@
+package com.coupon.backend.service;
+
+import com.coupon.backend.event.CouponListedEvent;
+import com.coupon.backend.event.CouponRedeemedEvent;
+import com.coupon.backend.event.PointsChangedEvent;
+import com.coupon.backend.event.UserRegisteredEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hourly and daily counters in stats_rollup, kept up to date from the domain events instead of
+ * counting source rows. Events only bump in-memory counters; a scheduled flush adds them to the
+ * table with one upsert per (granularity, metric, dimension, bucket), so the cost of a report is
+ * a handful of rows no matter how much history there is. Counters are merged into and removed
+ * from the pending map atomically per key, so an event racing a flush is counted by this flush
+ * or the next, never lost.
+ * <p>
+ * Each event is counted under the empty dimension (the total) and, where it has them, under
+ * "platform=...", "category=..." or "reason=...". Hour and day buckets are hours and days of
+ * {@code stats.zone}, so in a zone like Asia/Kolkata an hour bucket starts at half past a UTC hour.
+ * {@link #rebuild} recomputes a date range from the source tables for backfills and repairs.
+ */
+@Service
+public class StatsRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatsRollupService.class);
+
+    public enum Metric {
+        USERS_REGISTERED,
+        COUPONS_LISTED,
+        COUPONS_REDEEMED,
+        POINTS_EARNED,
+        POINTS_SPENT
+    }
+
+    public enum Granularity {
+        HOUR,
+        DAY
+    }
+
+    public static final String TOTAL = "";
+    public static final String PLATFORM = "platform";
+    public static final String CATEGORY = "category";
+    public static final String REASON = "reason";
+
+    private record Key(Granularity granularity, Metric metric, String dimension, Instant bucketStart) {
+    }
+
+    /**
+     * Where {@link #rebuild} recomputes a metric from. Dimensions map a dimension name to its column.
+     */
+    private record Source(Metric metric, String from, String timeColumn, String value, String filter,
+                          Map<String, String> dimensions) {
+    }
+
+    private static final String REDEMPTIONS = "coupon_redemption r JOIN coupon c ON c.id = r.coupon_id";
+    private static final Map<String, String> COUPON_DIMENSIONS = Map.of(PLATFORM, "c.platform", CATEGORY, "c.category");
+
+    private static final List<Source> SOURCES = List.of(
+            new Source(Metric.USERS_REGISTERED, "userdetail u", "u.created_at", "1", "TRUE", Map.of()),
+            new Source(Metric.COUPONS_LISTED, "coupon c", "c.created_at", "1", "TRUE", COUPON_DIMENSIONS),
+            new Source(Metric.COUPONS_REDEEMED, REDEMPTIONS, "r.redeemed_at", "1", "TRUE", COUPON_DIMENSIONS),
+            new Source(Metric.POINTS_EARNED, "points_ledger l", "l.created_at", "l.delta", "l.delta > 0",
+                    Map.of(REASON, "l.reason")),
+            new Source(Metric.POINTS_SPENT, REDEMPTIONS, "r.redeemed_at", "COALESCE(r.points_deducted, 0)", "TRUE",
+                    COUPON_DIMENSIONS));
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO stats_rollup (granularity, metric, dimension, bucket_start, value) VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (granularity, metric, dimension, bucket_start) DO UPDATE SET value = stats_rollup.value + EXCLUDED.value";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ZoneId zone;
+
+    private final Map<Key, Long> pending = new ConcurrentHashMap<>();
+
+    // Flushes and rebuilds must not interleave, or a rebuild could lose or double a flushed delta
+    private final Object writeLock = new Object();
+
+    public StatsRollupService(@Value("${stats.zone:}") String zone) {
+        this.zone = zone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(zone);
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserRegistered(UserRegisteredEvent event) {
+        count(Metric.USERS_REGISTERED, event.registeredAt(), 1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCouponListed(CouponListedEvent event) {
+        count(Metric.COUPONS_LISTED, event.listedAt(), 1,
+                dimension(PLATFORM, event.platform()), dimension(CATEGORY, event.category()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCouponRedeemed(CouponRedeemedEvent event) {
+        String platform = dimension(PLATFORM, event.platform());
+        String category = dimension(CATEGORY, event.category());
+        count(Metric.COUPONS_REDEEMED, event.redeemedAt(), 1, platform, category);
+        count(Metric.POINTS_SPENT, event.redeemedAt(), event.pointsSpent(), platform, category);
+    }
+
+    /**
+     * Earned points only; spending is counted from redemptions, which carry the coupon's platform and category.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPointsChanged(PointsChangedEvent event) {
+        if (event.delta() > 0) {
+            count(Metric.POINTS_EARNED, event.changedAt(), event.delta(),
+                    dimension(REASON, event.reason() != null ? event.reason().name() : null));
+        }
+    }
+
+    /**
+     * Writes the counters accumulated since the last flush. Failed deltas are put back for the next run.
+     */
+    @Scheduled(fixedDelayString = "${stats.rollup.flush-interval-ms:5000}")
+    public void flush() {
+        synchronized (writeLock) {
+            Map<Key, Long> deltas = drain();
+            if (deltas.isEmpty()) {
+                return;
+            }
+            List<Object[]> params = new ArrayList<>(deltas.size());
+            for (Map.Entry<Key, Long> e : deltas.entrySet()) {
+                Key key = e.getKey();
+                params.add(new Object[]{key.granularity().name(), key.metric().name(), key.dimension(),
+                        Timestamp.from(key.bucketStart()), e.getValue()});
+            }
+            try {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, params);
+                logger.debug("[STATS] Flushed {} rollup rows", params.size());
+            } catch (DataAccessException ex) {
+                logger.error("[STATS] Rollup flush failed, will retry - Error: {}", ex.getMessage());
+                deltas.forEach((key, value) -> pending.merge(key, value, Long::sum));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Sum of a metric over [from, to) using buckets of the given granularity. Both bounds should
+     * fall on bucket starts; buckets are included by their start time.
+     */
+    public long sum(Metric metric, Granularity granularity, Instant from, Instant to, String dimension) {
+        Long value = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(value), 0) FROM stats_rollup " +
+                "WHERE granularity = ? AND metric = ? AND dimension = ? AND bucket_start >= ? AND bucket_start < ?",
+                Long.class, granularity.name(), metric.name(), dimension,
+                Timestamp.from(from), Timestamp.from(to));
+        return value != null ? value : 0;
+    }
+
+    /**
+     * Totals of every metric for one day, including events not yet flushed.
+     */
+    public Map<Metric, Long> getDayTotals(LocalDate day) {
+        flush();
+        Instant start = day.atStartOfDay(zone).toInstant();
+        Instant end = day.plusDays(1).atStartOfDay(zone).toInstant();
+        Map<Metric, Long> totals = new LinkedHashMap<>();
+        for (Metric metric : Metric.values()) {
+            totals.put(metric, 0L);
+        }
+        jdbcTemplate.query(
+                "SELECT metric, SUM(value) FROM stats_rollup " +
+                "WHERE granularity = 'DAY' AND dimension = '' AND bucket_start >= ? AND bucket_start < ? GROUP BY metric",
+                rs -> {
+                    totals.put(Metric.valueOf(rs.getString(1)), rs.getLong(2));
+                },
+                Timestamp.from(start), Timestamp.from(end));
+        return totals;
+    }
+
+    /**
+     * Recomputes every metric for the days in [from, to] from the source tables, replacing
+     * what is stored. Events still being committed while this runs may be counted twice for
+     * the current hour; rebuild closed days when exactness matters.
+     */
+    public Map<String, Object> rebuild(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new RuntimeException("The end date must not be before the start date");
+        }
+        long startedAt = System.nanoTime();
+        Timestamp start = Timestamp.from(from.atStartOfDay(zone).toInstant());
+        Timestamp end = Timestamp.from(to.plusDays(1).atStartOfDay(zone).toInstant());
+
+        synchronized (writeLock) {
+            // Pending counts inside the range are already in the source tables; the rest still need flushing
+            pending.keySet().removeIf(key -> !key.bucketStart().isBefore(start.toInstant())
+                    && key.bucketStart().isBefore(end.toInstant()));
+            Integer rows = transactionTemplate.execute(status -> {
+                jdbcTemplate.update("DELETE FROM stats_rollup WHERE bucket_start >= ? AND bucket_start < ?", start, end);
+                int inserted = 0;
+                for (Granularity granularity : Granularity.values()) {
+                    for (Source source : SOURCES) {
+                        inserted += insertFromSource(granularity, source, start, end);
+                    }
+                }
+                return inserted;
+            });
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("from", from);
+            result.put("to", to);
+            result.put("rows", rows);
+            result.put("elapsedMillis", (System.nanoTime() - startedAt) / 1_000_000);
+            logger.info("[STATS] Rebuilt rollups for {} to {} - {} rows", from, to, rows);
+            return result;
+        }
+    }
+
+    /**
+     * One INSERT ... SELECT for the total and one per dimension of the source.
+     */
+    private int insertFromSource(Granularity granularity, Source source, Timestamp start, Timestamp end) {
+        // Truncated in the configured zone, matching count()
+        String unit = granularity == Granularity.HOUR ? "hour" : "day";
+        String bucket = "date_trunc('" + unit + "', " + source.timeColumn() + ", ?)";
+
+        Map<String, String> dimensions = new LinkedHashMap<>();
+        dimensions.put("''", "TRUE");
+        source.dimensions().forEach((name, column) ->
+                dimensions.put("'" + name + "=' || TRIM(" + column + ")", "TRIM(" + column + ") <> ''"));
+
+        int rows = 0;
+        for (Map.Entry<String, String> dimension : dimensions.entrySet()) {
+            rows += jdbcTemplate.update(
+                    "INSERT INTO stats_rollup (granularity, metric, dimension, bucket_start, value) " +
+                    "SELECT ?, ?, " + dimension.getKey() + ", " + bucket + ", SUM(" + source.value() + ") " +
+                    "FROM " + source.from() + " WHERE " + source.timeColumn() + " >= ? AND " + source.timeColumn() + " < ?" +
+                    " AND " + source.filter() + " AND " + dimension.getValue() +
+                    " GROUP BY 3, 4",
+                    granularity.name(), source.metric().name(), zone.getId(), start, end);
+        }
+        return rows;
+    }
+
+    /**
+     * "name=value" for a non-blank value, otherwise null.
+     */
+    static String dimension(String name, String value) {
+        return value != null && !value.isBlank() ? name + "=" + value.trim() : null;
+    }
+
+    private void count(Metric metric, Instant at, long amount, String... dimensions) {
+        if (amount == 0) {
+            return;
+        }
+        Instant when = at != null ? at : Instant.now();
+        ZonedDateTime local = when.atZone(zone);
+        Instant hour = local.truncatedTo(ChronoUnit.HOURS).toInstant();
+        Instant day = local.toLocalDate().atStartOfDay(zone).toInstant();
+
+        add(metric, TOTAL, hour, day, amount);
+        for (String dimension : dimensions) {
+            if (dimension != null) {
+                add(metric, dimension, hour, day, amount);
+            }
+        }
+    }
+
+    private void add(Metric metric, String dimension, Instant hour, Instant day, long amount) {
+        pending.merge(new Key(Granularity.HOUR, metric, dimension, hour), amount, Long::sum);
+        pending.merge(new Key(Granularity.DAY, metric, dimension, day), amount, Long::sum);
+    }
+
+    private Map<Key, Long> drain() {
+        Map<Key, Long> deltas = new LinkedHashMap<>();
+        for (Key key : pending.keySet()) {
+            Long value = pending.remove(key);
+            if (value != null && value != 0) {
+                deltas.put(key, value);
+            }
+        }
+        return deltas;
+    }
+}
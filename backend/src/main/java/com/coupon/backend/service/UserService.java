@@ -9,7 +9,6 @@ import com.coupon.backend.entity.CouponRedemption;
 import com.coupon.backend.entity.UserDetail;
 import com.coupon.backend.repository.CouponRedemptionRepository;
 import com.coupon.backend.repository.CouponRepository;
-import com.coupon.backend.repository.UserDetailRepository;
 
 import java.util.List;
 import java.util.UUID;
@@ -17,26 +16,17 @@ import java.util.stream.Collectors;
 
 @Service
 public class UserService {
-    @Autowired
-    private UserDetailRepository userDetailRepository;
-
     @Autowired
     private CouponRepository couponRepository;
 
     @Autowired
     private CouponRedemptionRepository redemptionRepository;
 
-    public Integer getUserPoints(UUID userId) {
-        UserDetail user = userDetailRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
+    public Integer getUserPoints(UserDetail user) {
         return user.getPoints() != null ? user.getPoints() : 0;
     }
 
-    public UserProfileDto getUserProfile(UUID userId) {
-        UserDetail user = userDetailRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
+    public UserProfileDto getUserProfile(UserDetail user) {
         return new UserProfileDto(
             user.getId(),
             user.getFullName(),
@@ -47,11 +37,9 @@ public class UserService {
         );
     }
 
-    public UserStatsDto getUserStats(UUID userId) {
-        // Get user details for totals
-        UserDetail user = userDetailRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
+    public UserStatsDto getUserStats(UserDetail user) {
+        UUID userId = user.getId();
+
         // Use count methods instead of loading full lists
         long couponsAddedCount = couponRepository.countByListedByUserId(userId);
         long couponsRedeemedCount = redemptionRepository.countByUserId(userId);
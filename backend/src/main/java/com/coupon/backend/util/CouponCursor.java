@@ -0,0 +1,29 @@
+package com.coupon.backend.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of the last coupon a client has seen in keyset (cursor) browsing.
+ * Encoded as an opaque URL-safe token so clients never depend on its contents.
+ */
+public record CouponCursor(Instant createdAt, UUID id) {
+
+    public String encode() {
+        String raw = createdAt.getEpochSecond() + ":" + createdAt.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CouponCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            Instant createdAt = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new CouponCursor(createdAt, UUID.fromString(parts[2]));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor. Please reload the coupon list.");
+        }
+    }
+}
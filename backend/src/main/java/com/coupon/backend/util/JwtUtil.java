@@ -1,8 +1,10 @@
 package com.coupon.backend.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -22,11 +24,31 @@ public class JwtUtil {
     @Value("${jwt.expiration:86400000}") // 24 hours default
     private Long expiration;
 
+    // Built once; both are immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+        return signingKey;
+    }
+
+    /**
+     * Verifies the signature and expiry once and returns the claims.
+     * Throws a JwtException if the token is invalid or expired.
+     */
+    public Claims parseToken(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    public String generateToken(String email, String userId) {
+    public String generateToken(String email, String userId, String role) {
         logger.debug("[JWT] Generating token for email: {}, userId: {}", email, userId);
         
         Date issuedAt = new Date(System.currentTimeMillis());
@@ -37,6 +59,7 @@ public class JwtUtil {
         String token = Jwts.builder()
                 .setSubject(email)
                 .claim("userId", userId)
+                .claim("role", role)
                 .setIssuedAt(issuedAt)
                 .setExpiration(expiresAt)
                 .signWith(getSigningKey())
@@ -45,74 +68,4 @@ public class JwtUtil {
         logger.debug("[JWT] Token generated successfully - Length: {} chars", token.length());
         return token;
     }
-
-    public String extractEmail(String token) {
-        logger.debug("[JWT] Extracting email from token");
-        
-        try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            
-            String email = claims.getSubject();
-            logger.debug("[JWT] Email extracted successfully: {}", email);
-            return email;
-        } catch (Exception e) {
-            logger.error("[JWT] Failed to extract email from token - Error: {}", e.getMessage());
-            throw e;
-        }
-    }
-
-    public String extractUserId(String token) {
-        logger.debug("[JWT] Extracting userId from token");
-        
-        try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            
-            String userId = claims.get("userId", String.class);
-            logger.debug("[JWT] UserId extracted successfully: {}", userId);
-            return userId;
-        } catch (Exception e) {
-            logger.error("[JWT] Failed to extract userId from token - Error: {}", e.getMessage());
-            throw e;
-        }
-    }
-
-    public Boolean validateToken(String token, String email) {
-        logger.debug("[JWT] Validating token for email: {}", email);
-        
-        try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            
-            String tokenEmail = claims.getSubject();
-            logger.debug("[JWT] Token email: {}", tokenEmail);
-            Date expiration = claims.getExpiration();
-            logger.debug("[JWT] Token expiration: {}", expiration);
-            
-            boolean isValid = tokenEmail.equals(email) && expiration.after(new Date());
-            
-            if (isValid) {
-                logger.debug("[JWT] Token validated successfully for email: {}", email);
-            } else {
-                logger.warn("[JWT] Token validation failed - Email match: {}, Expired: {}", 
-                    tokenEmail.equals(email), !expiration.after(new Date()));
-            }
-            
-            return isValid;
-        } catch (Exception e) {
-            logger.error("[JWT] Token validation exception - Error: {}", e.getMessage());
-            return false;
-        }
-    }
 }
-
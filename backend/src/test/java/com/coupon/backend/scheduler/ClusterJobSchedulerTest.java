@@ -0,0 +1,104 @@
+package com.coupon.backend.scheduler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.support.PeriodicTrigger;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ClusterJobSchedulerTest {
+
+	@Autowired
+	private AutowireCapableBeanFactory beanFactory;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final String jobName = "test-singleton-" + UUID.randomUUID();
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	@AfterEach
+	void cleanUp() {
+		executor.shutdownNow();
+		jdbcTemplate.update("DELETE FROM job_run WHERE job_name = ?", jobName);
+	}
+
+	@Test
+	void concurrentInvocationsOnTwoInstancesRunTheJobOnce() throws Exception {
+		AtomicInteger runs = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ClusterJob job = new ClusterJob() {
+			@Override
+			public String name() {
+				return jobName;
+			}
+
+			@Override
+			public Trigger trigger() {
+				return new PeriodicTrigger(Duration.ofHours(1));
+			}
+
+			@Override
+			public void run() throws Exception {
+				runs.incrementAndGet();
+				started.countDown();
+				release.await(30, TimeUnit.SECONDS);
+			}
+		};
+
+		// Two schedulers sharing the database stand in for two instances
+		ClusterJobScheduler first = instance(job, "instance-a");
+		ClusterJobScheduler second = instance(job, "instance-b");
+
+		first.runNow(jobName);
+		assertTrue(started.await(30, TimeUnit.SECONDS));
+		second.runNow(jobName);
+
+		// The second instance finds the advisory lock taken and skips while the first is still running
+		await(second, status -> ((Number) status.get("skipped")).longValue() == 1);
+		release.countDown();
+		await(first, status -> Boolean.FALSE.equals(status.get("runningHere")));
+
+		assertEquals(1, runs.get());
+		assertEquals(1, jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM job_run WHERE job_name = ? AND status = 'SUCCEEDED'", Integer.class, jobName));
+	}
+
+	private ClusterJobScheduler instance(ClusterJob job, String instanceId) {
+		ClusterJobScheduler scheduler = new ClusterJobScheduler(List.of(job), instanceId);
+		beanFactory.autowireBean(scheduler);
+		// Not the shared scheduled-task pool, so the application's own jobs cannot delay these runs
+		ReflectionTestUtils.setField(scheduler, "scheduledTaskExecutor", executor);
+		return scheduler;
+	}
+
+	private static void await(ClusterJobScheduler scheduler, Predicate<Map<String, Object>> condition)
+			throws InterruptedException {
+		Instant deadline = Instant.now().plusSeconds(30);
+		while (!condition.test(scheduler.getStatus().get(0))) {
+			assertTrue(Instant.now().isBefore(deadline), "timed out waiting for " + scheduler.getInstanceId());
+			Thread.sleep(50);
+		}
+	}
+}
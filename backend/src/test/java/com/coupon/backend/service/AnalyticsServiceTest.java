@@ -0,0 +1,36 @@
+package com.coupon.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AnalyticsServiceTest {
+
+	private static final LocalDate DAY = LocalDate.of(2026, 3, 1);
+
+	@Test
+	void hourBucketsFollowHalfHourZones() {
+		List<Instant> starts = AnalyticsService.bucketStarts(DAY, DAY, AnalyticsService.Bucket.HOUR,
+				ZoneId.of("Asia/Kolkata"));
+
+		assertEquals(24, starts.size());
+		// Local midnight is 18:30 UTC the day before; every bucket is a local hour, not a UTC hour
+		assertEquals(Instant.parse("2026-02-28T18:30:00Z"), starts.get(0));
+		assertEquals(Instant.parse("2026-03-01T17:30:00Z"), starts.get(23));
+	}
+
+	@Test
+	void hourBucketsSkipTheMissingDaylightSavingHour() {
+		LocalDate springForward = LocalDate.of(2026, 3, 8);
+		List<Instant> starts = AnalyticsService.bucketStarts(springForward, springForward,
+				AnalyticsService.Bucket.HOUR, ZoneId.of("America/New_York"));
+
+		assertEquals(23, starts.size());
+		assertEquals(Instant.parse("2026-03-08T05:00:00Z"), starts.get(0));
+	}
+}
@@ -0,0 +1,124 @@
+package com.coupon.backend.service;
+
+import com.coupon.backend.entity.Coupon;
+import com.coupon.backend.enums.DiscountType;
+import com.coupon.backend.repository.CouponRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class CouponExpiryServiceTest {
+
+	private static final int BATCH_SIZE = 2;
+
+	@Autowired
+	private CouponExpiryService couponExpiryService;
+
+	@Autowired
+	private CouponRepository couponRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final List<UUID> couponIds = new ArrayList<>();
+
+	@DynamicPropertySource
+	static void expiryProperties(DynamicPropertyRegistry registry) {
+		registry.add("coupon.expiry.batch-size", () -> String.valueOf(BATCH_SIZE));
+	}
+
+	@AfterEach
+	void cleanUp() {
+		for (UUID id : couponIds) {
+			jdbcTemplate.update("DELETE FROM coupon_status_change WHERE coupon_id = ?", id);
+		}
+		couponRepository.deleteAllById(couponIds);
+	}
+
+	@Test
+	void sweepExpiresAndActivatesAcrossBatches() {
+		LocalDate today = LocalDate.now();
+		// More than one batch, so the sweep has to keep going after a full one
+		List<UUID> expiring = List.of(
+				save(coupon(true, false, today.minusDays(10), today.minusDays(1))),
+				save(coupon(true, false, today.minusDays(10), today.minusDays(1))),
+				save(coupon(true, false, today.minusDays(10), today)));
+		UUID starting = save(coupon(false, true, today, today.plusDays(7)));
+		UUID expiredBeforeStart = save(coupon(false, true, today.minusDays(3), today));
+		UUID stillValid = save(coupon(true, false, today.minusDays(1), today.plusDays(1)));
+
+		// Scheduling is off in tests, so no context (this one or another cached one) sweeps these first
+		Map<String, Object> result = couponExpiryService.sweep();
+
+		// Other coupons in the database may be due too
+		assertTrue((int) result.get("expired") >= expiring.size());
+		assertTrue((int) result.get("activated") >= 1);
+		assertTrue((int) result.get("expiredBeforeActivation") >= 1);
+		assertTrue((int) result.get("batches") >= 3);
+
+		for (UUID id : expiring) {
+			assertFalse(couponRepository.findById(id).orElseThrow().getIsActive());
+			assertEquals(List.of(false), recordedChanges(id));
+		}
+
+		Coupon started = couponRepository.findById(starting).orElseThrow();
+		assertTrue(started.getIsActive());
+		assertFalse(started.getIsPendingActivation());
+		assertEquals(List.of(true), recordedChanges(starting));
+
+		// Activated and expired in the same step: nothing visible changed, so nothing is broadcast
+		Coupon neverShown = couponRepository.findById(expiredBeforeStart).orElseThrow();
+		assertFalse(neverShown.getIsActive());
+		assertFalse(neverShown.getIsPendingActivation());
+		assertEquals(List.of(), recordedChanges(expiredBeforeStart));
+
+		assertTrue(couponRepository.findById(stillValid).orElseThrow().getIsActive());
+		assertEquals(List.of(), recordedChanges(stillValid));
+	}
+
+	private List<Boolean> recordedChanges(UUID couponId) {
+		return jdbcTemplate.queryForList("SELECT active FROM coupon_status_change WHERE coupon_id = ? ORDER BY seq",
+				Boolean.class, couponId);
+	}
+
+	private UUID save(Coupon coupon) {
+		UUID id = couponRepository.save(coupon).getId();
+		couponIds.add(id);
+		return id;
+	}
+
+	private static Coupon coupon(boolean active, boolean pendingActivation, LocalDate validFrom, LocalDate validTill) {
+		Coupon coupon = new Coupon();
+		coupon.setTitle("Expiry sweep test");
+		coupon.setCode("EXPIRY-" + UUID.randomUUID());
+		coupon.setPlatform("Test");
+		coupon.setCategory("Test");
+		coupon.setDiscountType(DiscountType.FLAT);
+		coupon.setDiscountValue(BigDecimal.TEN);
+		coupon.setValidFrom(validFrom);
+		coupon.setValidTill(validTill);
+		coupon.setTotalQuantity(10);
+		coupon.setSoldQuantity(0);
+		coupon.setIsActive(active);
+		coupon.setIsPendingActivation(pendingActivation);
+		coupon.setCreatedAt(Instant.now());
+		return coupon;
+	}
+}
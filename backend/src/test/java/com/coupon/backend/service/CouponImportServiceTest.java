@@ -0,0 +1,38 @@
+package com.coupon.backend.service;
+
+import com.coupon.backend.dto.CouponImportErrorDto;
+import com.coupon.backend.dto.CouponImportResultDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class CouponImportServiceTest {
+
+	@Autowired
+	private CouponImportService couponImportService;
+
+	@Test
+	void nullRecordIsRejectedAsItsOwnRow() throws Exception {
+		String ndjson = "null\n{\"title\": \"\"}\n";
+
+		CouponImportResultDto result = couponImportService.importCoupons(
+				new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)),
+				CouponImportService.Format.NDJSON, UUID.randomUUID());
+
+		assertEquals(2, result.totalRows());
+		assertEquals(0, result.imported());
+		assertEquals(2, result.failed());
+		// The import goes on past the empty record
+		List<Long> rows = result.errors().stream().map(CouponImportErrorDto::row).toList();
+		assertEquals(List.of(1L, 2L), rows);
+		assertEquals("Empty record", result.errors().get(0).message());
+	}
+}
@@ -0,0 +1,172 @@
+package com.coupon.backend.service;
+
+import com.coupon.backend.entity.Coupon;
+import com.coupon.backend.entity.UserDetail;
+import com.coupon.backend.enums.DiscountType;
+import com.coupon.backend.repository.CouponRedemptionRepository;
+import com.coupon.backend.repository.CouponRepository;
+import com.coupon.backend.repository.UserDetailRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class CouponRedemptionConcurrencyTest {
+
+	private static final int STOCK = 10;
+	private static final int BUYERS = 50;
+	private static final int REDEEM_COST = 5;
+	private static final int OTHER_INSTANCE_LEASE = 4;
+
+	@Autowired
+	private CouponRedemptionService redemptionService;
+
+	@Autowired
+	private CouponRepository couponRepository;
+
+	@Autowired
+	private CouponRedemptionRepository redemptionRepository;
+
+	@Autowired
+	private UserDetailRepository userDetailRepository;
+
+	@Autowired
+	private FlashSaleService flashSaleService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final List<UUID> userIds = new ArrayList<>();
+	private UUID couponId;
+
+	@AfterEach
+	void cleanUp() {
+		jdbcTemplate.update("DELETE FROM flash_sale_lease WHERE coupon_id = ?", couponId);
+		redemptionRepository.deleteAll(redemptionRepository.findAll().stream()
+				.filter(r -> r.getCouponId().equals(couponId))
+				.toList());
+		couponRepository.deleteById(couponId);
+		userDetailRepository.deleteAllById(userIds);
+	}
+
+	@Test
+	void concurrentRedemptionsNeverOversell() throws Exception {
+		couponId = couponRepository.save(flashCoupon()).getId();
+		createBuyers();
+
+		int succeeded = redeemConcurrently();
+
+		Coupon coupon = couponRepository.findById(couponId).orElseThrow();
+		assertEquals(STOCK, succeeded);
+		assertEquals(STOCK, coupon.getSoldQuantity());
+		assertFalse(coupon.getIsActive());
+		assertEquals(STOCK, redemptionRepository.countByCouponId(couponId));
+		assertEquals(STOCK * REDEEM_COST, pointsSpent());
+	}
+
+	@Test
+	void flashSaleSellsOnlyStockNotLeasedByOtherInstances() throws Exception {
+		couponId = couponRepository.save(flashCoupon()).getId();
+		flashSaleService.enable(couponId);
+		// Another instance holds a live slice of the stock
+		jdbcTemplate.update("INSERT INTO flash_sale_lease (coupon_id, instance_id, units, expires_at) " +
+				"VALUES (?, 'other-instance', ?, now() + interval '1 minute')", couponId, OTHER_INSTANCE_LEASE);
+		createBuyers();
+
+		int succeeded = redeemConcurrently();
+		flashSaleService.flush();
+
+		Coupon coupon = couponRepository.findById(couponId).orElseThrow();
+		assertEquals(STOCK - OTHER_INSTANCE_LEASE, succeeded);
+		assertEquals(STOCK - OTHER_INSTANCE_LEASE, coupon.getSoldQuantity());
+		assertTrue(coupon.getIsActive());
+		assertEquals(STOCK - OTHER_INSTANCE_LEASE, redemptionRepository.countByCouponId(couponId));
+		assertEquals((STOCK - OTHER_INSTANCE_LEASE) * REDEEM_COST, pointsSpent());
+
+		flashSaleService.disable(couponId);
+	}
+
+	private void createBuyers() {
+		for (int i = 0; i < BUYERS; i++) {
+			UserDetail user = new UserDetail("Buyer " + i, "buyer-" + UUID.randomUUID() + "@test.local", null);
+			user.setPoints(100);
+			userIds.add(userDetailRepository.save(user).getId());
+		}
+	}
+
+	/**
+	 * Every buyer redeems once, all at the same moment. Returns how many succeeded.
+	 */
+	private int redeemConcurrently() throws Exception {
+		AtomicInteger succeeded = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(BUYERS);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (UUID userId : userIds) {
+				futures.add(pool.submit(() -> {
+					start.await();
+					try {
+						redemptionService.redeemCoupon(couponId, userId);
+						succeeded.incrementAndGet();
+					} catch (RuntimeException e) {
+						rejected.incrementAndGet();
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		assertEquals(BUYERS, succeeded.get() + rejected.get());
+		return succeeded.get();
+	}
+
+	private int pointsSpent() {
+		return userDetailRepository.findAllById(userIds).stream()
+				.mapToInt(u -> 100 - u.getPoints())
+				.sum();
+	}
+
+	private Coupon flashCoupon() {
+		Coupon coupon = new Coupon();
+		coupon.setTitle("Flash sale stress test");
+		coupon.setCode("FLASH-" + UUID.randomUUID());
+		coupon.setPlatform("Test");
+		coupon.setCategory("Test");
+		coupon.setDiscountType(DiscountType.FLAT);
+		coupon.setDiscountValue(BigDecimal.TEN);
+		coupon.setValidFrom(LocalDate.now());
+		coupon.setValidTill(LocalDate.now().plusDays(7));
+		coupon.setTotalQuantity(STOCK);
+		coupon.setSoldQuantity(0);
+		coupon.setRedeemCost(REDEEM_COST);
+		coupon.setIsActive(true);
+		coupon.setCreatedAt(Instant.now());
+		return coupon;
+	}
+}
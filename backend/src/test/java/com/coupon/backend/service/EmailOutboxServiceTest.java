@@ -0,0 +1,137 @@
+package com.coupon.backend.service;
+
+import com.coupon.backend.entity.EmailOutboxMessage;
+import com.coupon.backend.enums.EmailStatus;
+import com.coupon.backend.repository.EmailOutboxRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class EmailOutboxServiceTest {
+
+	private static final SmtpStandIn SMTP = startSmtp();
+
+	@Autowired
+	private EmailOutboxService emailOutboxService;
+
+	@Autowired
+	private EmailOutboxRepository emailOutboxRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private final List<UUID> emailIds = new ArrayList<>();
+
+	@DynamicPropertySource
+	static void mailProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.mail.host", () -> "127.0.0.1");
+		registry.add("spring.mail.port", SMTP::port);
+		registry.add("spring.mail.username", () -> "");
+		registry.add("spring.mail.password", () -> "");
+		registry.add("spring.mail.properties.mail.smtp.auth", () -> "false");
+		registry.add("spring.mail.properties.mail.smtp.starttls.enable", () -> "false");
+		registry.add("spring.mail.properties.mail.debug", () -> "false");
+		// One sender, so the whole batch is claimed once and goes over one connection
+		registry.add("email.outbox.senders", () -> "1");
+	}
+
+	@AfterEach
+	void cleanUp() {
+		emailOutboxRepository.deleteAllById(emailIds);
+	}
+
+	@AfterAll
+	static void stopSmtp() throws IOException {
+		SMTP.close();
+	}
+
+	@Test
+	void deliversBatchOverOneConnectionAndClassifiesFailures() throws Exception {
+		String suffix = UUID.randomUUID() + "@test.local";
+		int connectionsBefore = SMTP.connections();
+
+		// One transaction, so the sender is woken once and claims the whole batch. Scheduling is off in
+		// tests, so no poll() of another cached context can claim any of these messages first
+		transactionTemplate.executeWithoutResult(status -> {
+			emailIds.add(emailOutboxService.enqueue("first-" + suffix, "Hello", "<p>One</p>", true));
+			emailIds.add(emailOutboxService.enqueue("rejected-" + suffix, "Hello", "Two", false));
+			emailIds.add(emailOutboxService.enqueue("later-" + suffix, "Hello", "Three", false));
+			emailIds.add(emailOutboxService.enqueue("second-" + suffix, "Hello", "Four", false));
+		});
+
+		List<EmailOutboxMessage> messages = awaitSettled(Duration.ofSeconds(30));
+
+		assertEquals(EmailStatus.SENT, find(messages, "first-").getStatus());
+		assertEquals(EmailStatus.SENT, find(messages, "second-").getStatus());
+		assertTrue(SMTP.delivered().containsAll(List.of("first-" + suffix, "second-" + suffix)));
+
+		// 550 is permanent: dead after one attempt
+		EmailOutboxMessage rejected = find(messages, "rejected-");
+		assertEquals(EmailStatus.DEAD, rejected.getStatus());
+		assertEquals(1, rejected.getAttempts());
+
+		// 451 is temporary: back in the queue with a later attempt time
+		EmailOutboxMessage later = find(messages, "later-");
+		assertEquals(EmailStatus.PENDING, later.getStatus());
+		assertEquals(1, later.getAttempts());
+		assertTrue(later.getNextAttemptAt().isAfter(Instant.now()));
+
+		assertEquals(1, SMTP.connections() - connectionsBefore);
+	}
+
+	@Test
+	void backoffGrowsExponentiallyUpToTheCap() {
+		Duration initial = Duration.ofSeconds(30);
+		Duration max = Duration.ofMinutes(10);
+
+		for (int attempt = 1; attempt <= 40; attempt++) {
+			long ceiling = Math.min(initial.toMillis() << Math.min(attempt - 1, 30), max.toMillis());
+			long delay = EmailOutboxService.backoff(attempt, initial, max).toMillis();
+			assertTrue(delay >= ceiling / 2 && delay <= ceiling, "attempt " + attempt + ": " + delay);
+		}
+	}
+
+	private List<EmailOutboxMessage> awaitSettled(Duration timeout) throws InterruptedException {
+		Instant deadline = Instant.now().plus(timeout);
+		while (true) {
+			List<EmailOutboxMessage> messages = emailOutboxRepository.findAllById(emailIds);
+			boolean settled = messages.stream().allMatch(m -> m.getStatus() != EmailStatus.SENDING
+					&& !(m.getStatus() == EmailStatus.PENDING && m.getAttempts() == 0));
+			if (settled || Instant.now().isAfter(deadline)) {
+				return messages;
+			}
+			Thread.sleep(100);
+		}
+	}
+
+	private static EmailOutboxMessage find(List<EmailOutboxMessage> messages, String prefix) {
+		return messages.stream()
+				.filter(m -> m.getRecipient().startsWith(prefix))
+				.findFirst()
+				.orElseThrow();
+	}
+
+	private static SmtpStandIn startSmtp() {
+		try {
+			return new SmtpStandIn();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
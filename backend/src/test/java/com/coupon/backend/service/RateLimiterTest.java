@@ -0,0 +1,40 @@
+package com.coupon.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.support.ResourcePropertySource;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+
+	@Test
+	void shippedConfigLetsATwentyOfferBatchThrough() throws IOException {
+		RateLimiter rateLimiter = shippedRateLimiter();
+
+		RateLimiter.Policy policy = rateLimiter.findPolicy("POST", "/extract/batch");
+		assertNotNull(policy);
+		assertEquals("extract-batch", policy.getName());
+
+		// One token taken by RateLimitFilter for the request, one per further offer by ExtractionBatchService
+		for (int offer = 1; offer <= 20; offer++) {
+			assertTrue(rateLimiter.tryAcquire(policy, "user:batch").allowed(), "offer " + offer);
+		}
+		// Single extractions keep their own, smaller bucket
+		assertEquals("extract", rateLimiter.findPolicy("POST", "/extract").getName());
+	}
+
+	private static RateLimiter shippedRateLimiter() throws IOException {
+		StandardEnvironment environment = new StandardEnvironment();
+		environment.getPropertySources().addFirst(
+				new ResourcePropertySource("classpath:application-docker.properties"));
+		return new RateLimiter(environment, true,
+				environment.getRequiredProperty("rate-limit.max-keys-per-policy", Integer.class),
+				Arrays.stream(environment.getRequiredProperty("rate-limit.policies").split(",")).toList());
+	}
+}
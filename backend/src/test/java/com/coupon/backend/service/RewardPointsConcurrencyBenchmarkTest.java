@@ -0,0 +1,115 @@
+package com.coupon.backend.service;
+
+import com.coupon.backend.entity.UserDetail;
+import com.coupon.backend.enums.PointsReason;
+import com.coupon.backend.repository.PointsLedgerRepository;
+import com.coupon.backend.repository.UserDetailRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Concurrent earn/spend against a single user. Logs throughput and checks that no update
+ * is lost and the balance never goes negative.
+ */
+@SpringBootTest
+class RewardPointsConcurrencyBenchmarkTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(RewardPointsConcurrencyBenchmarkTest.class);
+
+	private static final int THREADS = 16;
+	private static final int OPS_PER_THREAD = 200;
+	private static final int EARN = 5;
+	private static final int SPEND = 7;
+
+	@Autowired
+	private RewardPointsService rewardPointsService;
+
+	@Autowired
+	private UserDetailRepository userDetailRepository;
+
+	@Autowired
+	private PointsLedgerRepository pointsLedgerRepository;
+
+	private UUID userId;
+
+	@AfterEach
+	void cleanUp() {
+		pointsLedgerRepository.deleteAll(pointsLedgerRepository.findByUserIdOrderByCreatedAtDesc(userId));
+		userDetailRepository.deleteById(userId);
+	}
+
+	@Test
+	void concurrentEarnAndSpendForOneUser() throws Exception {
+		UserDetail user = new UserDetail("Benchmark", "points-" + UUID.randomUUID() + "@test.local", null);
+		user.setPoints(0);
+		userId = userDetailRepository.save(user).getId();
+
+		AtomicInteger earned = new AtomicInteger();
+		AtomicInteger spent = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		long elapsedNanos;
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				futures.add(pool.submit(() -> {
+					start.await();
+					for (int i = 0; i < OPS_PER_THREAD; i++) {
+						if (i % 2 == 0) {
+							rewardPointsService.addPointsById(userId, EARN, PointsReason.COUPON_LISTED, null);
+							earned.addAndGet(EARN);
+						} else {
+							try {
+								rewardPointsService.deductPointsById(userId, SPEND, PointsReason.COUPON_REDEEMED, null);
+								spent.addAndGet(SPEND);
+							} catch (RuntimeException e) {
+								rejected.incrementAndGet();
+							}
+						}
+					}
+					return null;
+				}));
+			}
+			long startedAt = System.nanoTime();
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get(120, TimeUnit.SECONDS);
+			}
+			elapsedNanos = System.nanoTime() - startedAt;
+		} finally {
+			pool.shutdownNow();
+		}
+
+		int ops = THREADS * OPS_PER_THREAD;
+		logger.info("[BENCHMARK] {} earn/spend ops on one user in {} ms ({} ops/s), {} spends rejected",
+				ops, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), Math.round(ops / (elapsedNanos / 1e9)), rejected.get());
+		// Every operation either went through or was rejected for lack of points
+		assertEquals(ops, earned.get() / EARN + spent.get() / SPEND + rejected.get());
+
+		UserDetail after = userDetailRepository.findById(userId).orElseThrow();
+		int expected = earned.get() - spent.get();
+		assertTrue(after.getPoints() >= 0);
+		assertEquals(expected, after.getPoints());
+		assertEquals(expected, pointsLedgerRepository.sumDeltaByUserId(userId));
+		assertEquals(earned.get(), after.getTotalPointsEarned());
+		assertEquals(spent.get(), after.getTotalPointsSpent());
+	}
+}
@@ -0,0 +1,75 @@
+package com.coupon.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuleBasedCouponExtractorTest {
+
+	private static final LocalDate TODAY = LocalDate.of(2026, 10, 18);
+
+	private final RuleBasedCouponExtractor extractor = new RuleBasedCouponExtractor();
+
+	@Test
+	void extractsStructuredPercentageOffer() {
+		RuleBasedCouponExtractor.Result result = extractor.extract(
+				"Use code SAVE20 for 20% off, min order ₹499, valid till 31 Mar", TODAY);
+		Map<String, Object> fields = result.fields();
+
+		assertEquals("SAVE20", fields.get("code"));
+		assertEquals("PERCENTAGE", fields.get("discountType"));
+		assertEquals(new BigDecimal("20"), fields.get("discountValue"));
+		assertEquals(new BigDecimal("499"), fields.get("minOrderValue"));
+		// No year and already past this year: next year's date
+		assertEquals("2027-03-31", fields.get("validTill"));
+		assertTrue(result.confidence() >= 0.8);
+	}
+
+	@Test
+	void extractsFlatOfferWithPlatformAndTerms() {
+		RuleBasedCouponExtractor.Result result = extractor.extract(
+				"Swiggy: Flat ₹100 OFF on orders above Rs. 299. Code: SWIGGY100. Valid for new users only. Expires 15/11/2026",
+				TODAY);
+		Map<String, Object> fields = result.fields();
+
+		assertEquals("SWIGGY100", fields.get("code"));
+		assertEquals("FLAT", fields.get("discountType"));
+		assertEquals(new BigDecimal("100"), fields.get("discountValue"));
+		assertEquals(new BigDecimal("299"), fields.get("minOrderValue"));
+		assertEquals("2026-11-15", fields.get("validTill"));
+		assertEquals("Swiggy", fields.get("platform"));
+		assertEquals(Boolean.TRUE, fields.get("requiresUniqueUser"));
+	}
+
+	@Test
+	void ambiguousCodesLowerConfidence() {
+		RuleBasedCouponExtractor.Result result = extractor.extract(
+				"Use code AAA11 or BBB22 for 10% off on Myntra", TODAY);
+
+		assertTrue(result.confidence() < 0.5);
+	}
+
+	@Test
+	void readsWholePercentages() {
+		Map<String, Object> fields = extractor.extract("Get 100% cashback with code PAYBACK", TODAY).fields();
+		assertEquals(new BigDecimal("100"), fields.get("discountValue"));
+
+		// Not a discount, and not "50%" either
+		assertFalse(extractor.extract("Now 150% faster delivery", TODAY).fields().containsKey("discountValue"));
+	}
+
+	@Test
+	void unstructuredTextHasNoConfidence() {
+		RuleBasedCouponExtractor.Result result = extractor.extract("Big sale this weekend! Shop now", TODAY);
+
+		assertEquals(0.0, result.confidence());
+		assertFalse(result.fields().containsKey("code"));
+	}
+
+}
@@ -0,0 +1,112 @@
+package com.coupon.backend.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal in-process SMTP server for tests. Accepts everything, except recipients containing
+ * "rejected" (550, permanent) or "later" (451, temporary). Records connections and the
+ * recipients of accepted messages.
+ */
+class SmtpStandIn implements AutoCloseable {
+
+	private final ServerSocket serverSocket;
+	private final AtomicInteger connections = new AtomicInteger();
+	private final List<String> delivered = new CopyOnWriteArrayList<>();
+
+	SmtpStandIn() throws IOException {
+		serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		Thread acceptor = new Thread(this::acceptLoop, "smtp-stand-in");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	int port() {
+		return serverSocket.getLocalPort();
+	}
+
+	int connections() {
+		return connections.get();
+	}
+
+	List<String> delivered() {
+		return delivered;
+	}
+
+	@Override
+	public void close() throws IOException {
+		serverSocket.close();
+	}
+
+	private void acceptLoop() {
+		while (!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				connections.incrementAndGet();
+				Thread.ofVirtual().start(() -> handle(socket));
+			} catch (IOException e) {
+				return;
+			}
+		}
+	}
+
+	private void handle(Socket socket) {
+		try (socket;
+			 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+			 PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+			reply(out, "220 localhost SMTP stand-in");
+			List<String> recipients = new CopyOnWriteArrayList<>();
+			String line;
+			while ((line = in.readLine()) != null) {
+				String command = line.toUpperCase();
+				if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+					reply(out, "250 localhost");
+				} else if (command.startsWith("MAIL FROM")) {
+					recipients.clear();
+					reply(out, "250 OK");
+				} else if (command.startsWith("RCPT TO")) {
+					if (command.contains("REJECTED")) {
+						reply(out, "550 5.1.1 No such user");
+					} else if (command.contains("LATER")) {
+						reply(out, "451 4.3.0 Try again later");
+					} else {
+						recipients.add(line.substring(line.indexOf('<') + 1, line.indexOf('>')));
+						reply(out, "250 OK");
+					}
+				} else if (command.equals("DATA")) {
+					reply(out, "354 End data with <CR><LF>.<CR><LF>");
+					while ((line = in.readLine()) != null && !line.equals(".")) {
+						// Message content is not inspected
+					}
+					delivered.addAll(recipients);
+					recipients.clear();
+					reply(out, "250 OK queued");
+				} else if (command.equals("RSET") || command.equals("NOOP")) {
+					recipients.clear();
+					reply(out, "250 OK");
+				} else if (command.equals("QUIT")) {
+					reply(out, "221 Bye");
+					return;
+				} else {
+					reply(out, "502 Command not implemented");
+				}
+			}
+		} catch (IOException e) {
+			// Client closed the connection
+		}
+	}
+
+	private static void reply(PrintWriter out, String line) {
+		out.print(line + "\r\n");
+		out.flush();
+	}
+}
@@ -0,0 +1,118 @@
+package com.coupon.backend.service;
+
+import com.coupon.backend.event.UserRegisteredEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class StatsRollupServiceTest {
+
+	// Long before any real data, so rebuilds of these days find nothing in the source tables
+	private static final LocalDate FIRST_DAY = LocalDate.of(2001, 1, 1);
+	private static final LocalDate LAST_DAY = LocalDate.of(2001, 1, 31);
+
+	private static final int THREADS = 8;
+	private static final int EVENTS_PER_THREAD = 5_000;
+
+	@Autowired
+	private StatsRollupService statsRollupService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	@AfterEach
+	void cleanUp() {
+		statsRollupService.flush();
+		jdbcTemplate.update("DELETE FROM stats_rollup WHERE bucket_start >= ? AND bucket_start < ?",
+				Timestamp.from(start(FIRST_DAY)), Timestamp.from(start(LAST_DAY.plusDays(1))));
+	}
+
+	@Test
+	void eventsCountedDuringFlushesAreNotLost() throws Exception {
+		LocalDate day = FIRST_DAY.plusDays(9);
+		Instant at = start(day).plusSeconds(3600);
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+		CountDownLatch startGate = new CountDownLatch(1);
+		AtomicBoolean counting = new AtomicBoolean(true);
+		try {
+			List<Future<?>> counters = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				counters.add(executor.submit(() -> {
+					startGate.await();
+					for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+						statsRollupService.onUserRegistered(new UserRegisteredEvent(UUID.randomUUID(), at));
+					}
+					return null;
+				}));
+			}
+			Future<?> flusher = executor.submit(() -> {
+				startGate.await();
+				while (counting.get()) {
+					statsRollupService.flush();
+				}
+				return null;
+			});
+
+			startGate.countDown();
+			for (Future<?> counter : counters) {
+				counter.get(60, TimeUnit.SECONDS);
+			}
+			counting.set(false);
+			flusher.get(60, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdownNow();
+		}
+		statsRollupService.flush();
+
+		long expected = (long) THREADS * EVENTS_PER_THREAD;
+		assertEquals(expected, daySum(day));
+		assertEquals(expected, statsRollupService.sum(StatsRollupService.Metric.USERS_REGISTERED,
+				StatsRollupService.Granularity.HOUR, start(day), start(day.plusDays(1)), StatsRollupService.TOTAL));
+	}
+
+	@Test
+	void rebuildDiscardsOnlyPendingCountsInsideItsRange() {
+		LocalDate rebuilt = FIRST_DAY.plusDays(1);
+		LocalDate untouched = FIRST_DAY.plusDays(20);
+		statsRollupService.onUserRegistered(new UserRegisteredEvent(UUID.randomUUID(), start(rebuilt).plusSeconds(60)));
+		statsRollupService.onUserRegistered(new UserRegisteredEvent(UUID.randomUUID(), start(untouched).plusSeconds(60)));
+
+		statsRollupService.rebuild(FIRST_DAY, rebuilt);
+		statsRollupService.flush();
+
+		// Replaced by the (empty) source tables
+		assertEquals(0, daySum(rebuilt));
+		// Still pending when the rebuild ran, and flushed afterwards
+		assertEquals(1, daySum(untouched));
+	}
+
+	private long daySum(LocalDate day) {
+		return statsRollupService.sum(StatsRollupService.Metric.USERS_REGISTERED,
+				StatsRollupService.Granularity.DAY, start(day), start(day.plusDays(1)), StatsRollupService.TOTAL);
+	}
+
+	private Instant start(LocalDate day) {
+		return day.atStartOfDay(statsRollupService.getZone()).toInstant();
+	}
+}